@@ -0,0 +1,68 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.BinaryStorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.CodecRegistry;
+import com.bmstu_bureau_1440.accounting.components.CsvSerializer;
+import com.bmstu_bureau_1440.accounting.components.CsvStorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.JsonStorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.StorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.YamlStorageSerializer;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static StorageSerializer serializer(FileType fileType, ExecutorService executor) {
+        return switch (fileType) {
+            case CSV -> new CsvStorageSerializer(new CsvSerializer(new CodecRegistry()), executor);
+            case JSON -> new JsonStorageSerializer(new CodecRegistry());
+            case YAML -> new YamlStorageSerializer();
+            case BINARY -> new BinaryStorageSerializer();
+        };
+    }
+
+    static Storage generate(int operationsCount) {
+        return generate(Dataset.UNIFORM, operationsCount);
+    }
+
+    static Storage generate(Dataset dataset, int operationsCount) {
+        return DatasetGenerator.generate(switch (dataset) {
+            case UNIFORM -> DatasetGenerator.Profile.uniform(operationsCount);
+            case SKEWED -> DatasetGenerator.Profile.skewed(operationsCount);
+        });
+    }
+
+    /**
+     * @return the key shared by the most (or, with the natural order, the fewest) operations
+     */
+    static String byUsage(Storage storage, Function<Operation, String> key, Comparator<Long> order) {
+        return storage.getOperations().stream()
+                .collect(Collectors.groupingBy(key, Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(order))
+                .findFirst().orElseThrow().getKey();
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+}
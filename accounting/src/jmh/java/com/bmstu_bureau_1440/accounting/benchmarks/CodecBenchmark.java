@@ -0,0 +1,108 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.CodecRegistry;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.dataformat.csv.CsvMapper;
+import tools.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Small exports repeated many times, written to memory so that only the encoding counts:
+ * {@code perCall*} build the schema and the writer on every export like the serializers used
+ * to, {@code cached*} take them from {@link CodecRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({ "10", "1000" })
+    public int operations;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private final CodecRegistry prettyCodecs = new CodecRegistry(false);
+
+    private final CodecRegistry compactCodecs = new CodecRegistry(true);
+
+    private Storage storage;
+
+    private List<Operation> rows;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        storage = BenchmarkData.generate(operations);
+        rows = storage.getOperations();
+    }
+
+    @Benchmark
+    public byte[] perCallCsv() throws Exception {
+        final CsvSchema schema = csvMapper.schemaFor(Operation.class).withHeader();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+                var sequenceWriter = csvMapper.writer(schema)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                        .writeValues(writer)) {
+            for (Operation operation : rows) {
+                sequenceWriter.write(operation);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cachedCsv() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+                var sequenceWriter = prettyCodecs.csv(Operation.class).writer().writeValues(writer)) {
+            for (Operation operation : rows) {
+                sequenceWriter.write(operation);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] perCallJson() {
+        return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(storage);
+    }
+
+    @Benchmark
+    public byte[] cachedJson() {
+        return prettyCodecs.json(Storage.class).writer().writeValueAsBytes(storage);
+    }
+
+    @Benchmark
+    public byte[] cachedCompactJson() {
+        return compactCodecs.json(Storage.class).writer().writeValueAsBytes(storage);
+    }
+
+}
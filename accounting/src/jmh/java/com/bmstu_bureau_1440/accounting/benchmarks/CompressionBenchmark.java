@@ -0,0 +1,107 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.StorageSerializer;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+
+/**
+ * Export and import time of the text formats with every {@link Compression}; the size of the
+ * written files and the ratio to the uncompressed size are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({ "CSV", "JSON", "YAML" })
+    public FileType fileType;
+
+    @Param({ "NONE", "GZIP", "LZ4" })
+    public Compression compression;
+
+    @Param({ "100000" })
+    public int operations;
+
+    private ExecutorService executor;
+
+    private StorageSerializer serializer;
+
+    private Storage storage;
+
+    private Path exportPath;
+
+    private Path importPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        serializer = BenchmarkData.serializer(fileType, executor);
+        storage = BenchmarkData.generate(operations);
+
+        exportPath = Files.createTempDirectory("accounting-export");
+        importPath = Files.createTempDirectory("accounting-import");
+        serializer.serialize(storage, compression, importPath);
+
+        final long size = size(importPath);
+        if (compression == Compression.NONE) {
+            System.out.printf("%n%s: %d operations, %,d bytes on disk%n", fileType, operations, size);
+        } else {
+            serializer.serialize(storage, exportPath);
+            System.out.printf("%n%s %s: %d operations, %,d bytes on disk, ratio %.2f%n", fileType, compression,
+                    operations, size, (double) size(exportPath) / size);
+            BenchmarkData.delete(exportPath);
+            Files.createDirectories(exportPath);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        BenchmarkData.delete(exportPath);
+        BenchmarkData.delete(importPath);
+    }
+
+    @Benchmark
+    public Path export() throws Exception {
+        serializer.serialize(storage, compression, exportPath);
+        return exportPath;
+    }
+
+    @Benchmark
+    public Storage restore() throws Exception {
+        return serializer.deserialize(compression, importPath);
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+/**
+ * Shape of the generated data, see {@link DatasetGenerator.Profile}.
+ */
+public enum Dataset {
+    UNIFORM, SKEWED
+}
@@ -0,0 +1,135 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+
+/**
+ * Generates storages that look like real bookkeeping rather than uniform noise.
+ * <p>
+ * Accounts, categories and descriptions are picked with Zipf distributions (a few accounts and
+ * categories get most of the operations), amounts are log-normal with salary-like deposits and
+ * small everyday withdrawals, and operations go in chronological order with random gaps. Every
+ * account balance is its initial balance plus its operations, so the totals are consistent.
+ */
+final class DatasetGenerator {
+
+    private static final String[] WORDS = { "coffee", "groceries", "taxi", "rent", "salary", "bonus", "gift",
+            "cinema", "pharmacy", "fuel", "subscription", "transfer", "lunch", "books", "gym", "utilities",
+            "insurance", "repair", "travel", "refund" };
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    /**
+     * @param accountSkew  Zipf exponent of the account distribution, 0 for uniform
+     * @param categorySkew Zipf exponent of the category distribution, 0 for uniform
+     * @param depositShare share of categories that are deposits
+     */
+    record Profile(int accounts, int categories, int operations, double accountSkew, double categorySkew,
+            double depositShare, long seed) {
+
+        static Profile uniform(int operations) {
+            return new Profile(20, 12, operations, 0, 0, 1.0 / 3, 42);
+        }
+
+        static Profile skewed(int operations) {
+            return new Profile(50, 40, operations, 1.1, 0.9, 0.2, 42);
+        }
+
+    }
+
+    private DatasetGenerator() {
+    }
+
+    static Storage generate(Profile profile) {
+        final Random random = new Random(profile.seed());
+
+        final List<Category> categories = new ArrayList<>(profile.categories());
+        final int deposits = Math.max(1, (int) Math.round(profile.categories() * profile.depositShare()));
+        for (int i = 0; i < profile.categories(); i++) {
+            // deposit categories are spread over the ranks so that the popular ones aren't all expenses
+            final boolean deposit = i * deposits / profile.categories() != (i + 1) * deposits / profile.categories();
+            categories.add(new Category(deposit ? OperationType.DEPOSIT : OperationType.WITHDRAWAL,
+                    (deposit ? "Income " : "Expense ") + i));
+        }
+
+        final Zipf accountRanks = new Zipf(profile.accounts(), profile.accountSkew());
+        final Zipf categoryRanks = new Zipf(profile.categories(), profile.categorySkew());
+        final Zipf wordRanks = new Zipf(WORDS.length, 1.0);
+
+        final String[] accountIds = new String[profile.accounts()];
+        Arrays.setAll(accountIds, i -> UUID.randomUUID().toString());
+        final BigDecimal[] balances = new BigDecimal[profile.accounts()];
+        Arrays.fill(balances, BigDecimal.ZERO);
+        final BigDecimal[] lowestBalances = balances.clone();
+
+        LocalDateTime date = START;
+        final long averageGapMillis = 5L * 365 * 24 * 3600 * 1000 / Math.max(1, profile.operations());
+        final List<Operation> operations = new ArrayList<>(profile.operations());
+        for (int i = 0; i < profile.operations(); i++) {
+            final int account = accountRanks.next(random);
+            final Category category = categories.get(categoryRanks.next(random));
+            final boolean deposit = category.getType() == OperationType.DEPOSIT;
+
+            // median 25 000.00 for deposits and 450.00 for withdrawals, with a long tail
+            final double amount = Math.exp((deposit ? Math.log(25_000) : Math.log(450))
+                    + random.nextGaussian() * (deposit ? 0.5 : 1.1));
+            final BigDecimal signed = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+
+            date = date.plusNanos((long) (random.nextDouble() * 2 * averageGapMillis) * 1_000_000);
+            operations.add(new Operation(UUID.randomUUID().toString(), accountIds[account], category.getId(),
+                    deposit ? signed : signed.negate(), date,
+                    WORDS[wordRanks.next(random)] + " " + WORDS[wordRanks.next(random)] + " #" + i));
+            balances[account] = balances[account].add(deposit ? signed : signed.negate());
+            lowestBalances[account] = lowestBalances[account].min(balances[account]);
+        }
+
+        final List<BankAccount> accounts = new ArrayList<>(profile.accounts());
+        for (int i = 0; i < profile.accounts(); i++) {
+            // the initial balance covers the deepest point an account could reach, so it never goes negative
+            final BigDecimal initial = BigDecimal.valueOf(random.nextInt(10_000_00), 2)
+                    .subtract(lowestBalances[i]);
+            accounts.add(new BankAccount(accountIds[i], "Account " + i, initial.add(balances[i])));
+        }
+
+        return new Storage(operations, accounts, categories);
+    }
+
+    /**
+     * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent.
+     */
+    private static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            final int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils;
+import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.services.AccountsService;
+import com.bmstu_bureau_1440.accounting.services.AnalyticsService;
+import com.bmstu_bureau_1440.accounting.services.CategoriesService;
+import com.bmstu_bureau_1440.accounting.services.EntityNamesCache;
+import com.bmstu_bureau_1440.accounting.services.OperationsIndex;
+import com.bmstu_bureau_1440.accounting.services.OperationsService;
+
+import dev.tamboui.layout.Constraint;
+import dev.tamboui.text.CharWidth;
+
+/**
+ * What {@code OperationsTableWidget.renderContent} does per frame short of drawing into the
+ * terminal buffer: getting the filtered operations from the controller and formatting and
+ * truncating the cells of the visible rows. {@code fullList} formats every filtered row, which
+ * is what a table without a visible window costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OperationsTableBenchmark {
+
+    private static final int VISIBLE_ROWS = 40;
+
+    private static final int TERMINAL_WIDTH = 200;
+
+    private static final Constraint[] CONSTRAINTS = { Constraint.percentage(30), Constraint.percentage(15),
+            Constraint.percentage(15), Constraint.percentage(10), Constraint.fill() };
+
+    @Param({ "UNIFORM", "SKEWED" })
+    public Dataset dataset;
+
+    @Param({ "1000000" })
+    public int operations;
+
+    @Param({ "false", "true" })
+    public boolean filtered;
+
+    private OperationsTuiController controller;
+
+    private int[] columnWidths;
+
+    private int windowOffset;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Storage storage = BenchmarkData.generate(dataset, operations);
+        final AnalyticsService analyticsService = new AnalyticsService(storage);
+        final OperationsIndex operationsIndex = new OperationsIndex(storage);
+        final EntityNamesCache entityNamesCache = new EntityNamesCache(storage);
+
+        final ApplicationEventPublisher eventPublisher = event -> {
+            final StorageEvent storageEvent = (StorageEvent) event;
+            storage.onStorageEvent(storageEvent);
+            analyticsService.onStorageEvent(storageEvent);
+            operationsIndex.onStorageEvent(storageEvent);
+            entityNamesCache.onStorageEvent(storageEvent);
+        };
+        final AccountsService accountsService = new AccountsService(storage, eventPublisher);
+        final OperationsService operationsService = new OperationsService(storage, accountsService,
+                new CategoriesService(storage, eventPublisher), eventPublisher);
+
+        controller = new OperationsTuiController(storage, operationsService, analyticsService, operationsIndex,
+                entityNamesCache);
+        controller.selectNextOperation();
+        if (filtered) {
+            controller.toggleAccountSelection(
+                    BenchmarkData.byUsage(storage, Operation::getBankAccountId, Comparator.reverseOrder()));
+        }
+
+        columnWidths = TuiUtils.columnWidths(CONSTRAINTS, TERMINAL_WIDTH, 4, 1);
+        windowOffset = controller.getOperations().size() / 2;
+    }
+
+    @Benchmark
+    public void visibleWindow(Blackhole blackhole) {
+        final List<Operation> data = controller.getOperations();
+        final int windowEnd = Math.min(data.size(), windowOffset + VISIBLE_ROWS);
+        for (int i = windowOffset; i < windowEnd; i++) {
+            blackhole.consume(formatRow(data.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void fullList(Blackhole blackhole) {
+        for (Operation operation : controller.getOperations()) {
+            blackhole.consume(formatRow(operation));
+        }
+    }
+
+    // the columns of OperationsTableWidget
+    private String[] formatRow(Operation operation) {
+        return TuiUtils.truncateRow(new String[] {
+                operation.getDate().toString(),
+                controller.getAccountName(operation.getBankAccountId()),
+                controller.getCategoryName(operation.getCategoryId()),
+                operation.getAmount().toPlainString(),
+                operation.getDescription() }, columnWidths, CharWidth.TruncatePosition.MIDDLE);
+    }
+
+}
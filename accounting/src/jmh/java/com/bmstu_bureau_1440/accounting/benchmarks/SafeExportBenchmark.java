@@ -0,0 +1,89 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
+import com.bmstu_bureau_1440.accounting.components.StorageSerializer;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+
+/**
+ * Cost of the crash-safe export (temporary directory, fsync, checksums, atomic moves) compared
+ * to serializing straight into the target directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SafeExportBenchmark {
+
+    @Param({ "CSV", "BINARY" })
+    public FileType fileType;
+
+    @Param({ "5000000" })
+    public int operations;
+
+    private ExecutorService executor;
+
+    private StorageSerializer serializer;
+
+    private final SafeStorageFiles safeStorageFiles = new SafeStorageFiles();
+
+    private Storage storage;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        serializer = BenchmarkData.serializer(fileType, executor);
+        storage = BenchmarkData.generate(operations);
+        directory = Files.createTempDirectory("accounting-safe-export").resolve("export");
+        safeStorageFiles.export(serializer, storage, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        BenchmarkData.delete(directory.getParent());
+    }
+
+    @Benchmark
+    public Path plainExport() throws Exception {
+        serializer.serialize(storage, directory);
+        return directory;
+    }
+
+    @Benchmark
+    public Path safeExport() throws Exception {
+        safeStorageFiles.export(serializer, storage, directory);
+        return directory;
+    }
+
+    @Benchmark
+    public Storage verifiedImport() throws Exception {
+        return safeStorageFiles.restore(serializer, directory);
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.BinaryStorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.repositories.ChangeLogRepository;
+import com.bmstu_bureau_1440.accounting.services.AccountsService;
+import com.bmstu_bureau_1440.accounting.services.AnalyticsService;
+import com.bmstu_bureau_1440.accounting.services.CategoriesService;
+import com.bmstu_bureau_1440.accounting.services.EntityNamesCache;
+import com.bmstu_bureau_1440.accounting.services.OperationsIndex;
+import com.bmstu_bureau_1440.accounting.services.OperationsQuery;
+import com.bmstu_bureau_1440.accounting.services.OperationsQueryService;
+import com.bmstu_bureau_1440.accounting.services.OperationsService;
+import com.bmstu_bureau_1440.accounting.services.Rollup;
+
+/**
+ * Services over a generated storage: rebuilding the derived state, the queries the TUI runs
+ * every frame and a single add/delete with every listener attached, the way the Spring
+ * context wires them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServicesBenchmark {
+
+    @Param({ "UNIFORM", "SKEWED" })
+    public Dataset dataset;
+
+    @Param({ "1000000" })
+    public int operations;
+
+    private Storage storage;
+
+    private AnalyticsService analyticsService;
+
+    private OperationsIndex operationsIndex;
+
+    private OperationsService operationsService;
+
+    private OperationsQueryService operationsQueryService;
+
+    private OperationsQueryService.Cursor middle;
+
+    private Set<String> busiestAccount;
+
+    private Set<String> rarestCategory;
+
+    private String accountId;
+
+    private String categoryId;
+
+    private boolean alternate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        storage = BenchmarkData.generate(dataset, operations);
+        analyticsService = new AnalyticsService(storage);
+        operationsIndex = new OperationsIndex(storage);
+        final EntityNamesCache entityNamesCache = new EntityNamesCache(storage);
+        operationsQueryService = new OperationsQueryService(storage, entityNamesCache);
+
+        final ApplicationEventPublisher eventPublisher = event -> {
+            final StorageEvent storageEvent = (StorageEvent) event;
+            storage.onStorageEvent(storageEvent);
+            analyticsService.onStorageEvent(storageEvent);
+            operationsIndex.onStorageEvent(storageEvent);
+            entityNamesCache.onStorageEvent(storageEvent);
+            operationsQueryService.onStorageEvent(storageEvent);
+        };
+        final AccountsService accountsService = new AccountsService(storage, eventPublisher);
+        // not restored, so nothing is written to the journal
+        final ChangeLogRepository changeLogRepository = new ChangeLogRepository(
+                List.of(new BinaryStorageSerializer()), new SafeStorageFiles(), storage, eventPublisher,
+                ForkJoinPool.commonPool());
+        operationsService = new OperationsService(storage, accountsService,
+                new CategoriesService(storage, eventPublisher), eventPublisher, changeLogRepository);
+
+        busiestAccount = Set.of(BenchmarkData.byUsage(storage, Operation::getBankAccountId, Comparator.reverseOrder()));
+        rarestCategory = Set.of(BenchmarkData.byUsage(storage, Operation::getCategoryId, Comparator.naturalOrder()));
+        accountId = busiestAccount.iterator().next();
+        categoryId = storage.getCategories().getFirst().getId();
+        middle = new OperationsQueryService.Cursor(storage.getOperations().get(operations / 2));
+        // the sorted trees are built by the first query
+        operationsQueryService.query(OperationsQuery.all(OperationsQuery.Sort.DATE, false, 1), null);
+    }
+
+    @Benchmark
+    public AnalyticsService rebuildAnalytics() {
+        return new AnalyticsService(storage);
+    }
+
+    @Benchmark
+    public OperationsIndex rebuildIndex() {
+        return new OperationsIndex(storage);
+    }
+
+    @Benchmark
+    public AnalyticsService.Totals yearTotals() {
+        return analyticsService.getTotals(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31));
+    }
+
+    @Benchmark
+    public List<Rollup.Bucket> monthlyRollup() {
+        return analyticsService.getRollup(Rollup.Period.MONTH, LocalDate.of(2020, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    /**
+     * Alternates two filters so that every call misses the memoized result.
+     */
+    @Benchmark
+    public void filter(Blackhole blackhole) {
+        alternate = !alternate;
+        blackhole.consume(alternate
+                ? operationsIndex.filter(busiestAccount, Set.of())
+                : operationsIndex.filter(Set.of(), rarestCategory));
+    }
+
+    /**
+     * Alternates a single prefix and two words within the busiest account, both missing the
+     * memoized result.
+     */
+    @Benchmark
+    public void search(Blackhole blackhole) {
+        alternate = !alternate;
+        blackhole.consume(alternate
+                ? operationsIndex.filter(Set.of(), Set.of(), "tax")
+                : operationsIndex.filter(busiestAccount, Set.of(), "coffee gym"));
+    }
+
+    @Benchmark
+    public OperationsQueryService.Page pageByAmount() {
+        return operationsQueryService.query(OperationsQuery.all(OperationsQuery.Sort.AMOUNT, true, 50), middle);
+    }
+
+    @Benchmark
+    public OperationsQueryService.Page pageByDateOfBusiestAccount() {
+        return operationsQueryService.query(
+                new OperationsQuery(busiestAccount, Set.of(), "", null, OperationsQuery.Sort.DATE, false, 50), middle);
+    }
+
+    @Benchmark
+    public boolean addAndDeleteOperation() {
+        final Operation operation = operationsService.addNewOperation(accountId, categoryId, BigDecimal.TEN,
+                "benchmark");
+        return operationsService.deleteOperation(operation);
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.bmstu_bureau_1440.accounting.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.StorageSerializer;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+
+/**
+ * Export and import time of every {@link StorageSerializer}; the size of the written files is
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageSerializerBenchmark {
+
+    @Param({ "CSV", "JSON", "YAML", "BINARY" })
+    public FileType fileType;
+
+    @Param({ "100000" })
+    public int operations;
+
+    @Param({ "UNIFORM", "SKEWED" })
+    public Dataset dataset;
+
+    private ExecutorService executor;
+
+    private StorageSerializer serializer;
+
+    private Storage storage;
+
+    private Path exportPath;
+
+    private Path importPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        serializer = BenchmarkData.serializer(fileType, executor);
+        storage = BenchmarkData.generate(dataset, operations);
+
+        exportPath = Files.createTempDirectory("accounting-export");
+        importPath = Files.createTempDirectory("accounting-import");
+        serializer.serialize(storage, importPath);
+
+        try (Stream<Path> files = Files.list(importPath)) {
+            long size = files.mapToLong(file -> file.toFile().length()).sum();
+            System.out.printf("%n%s (%s): %d operations, %,d bytes on disk%n", fileType, dataset, operations, size);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        BenchmarkData.delete(exportPath);
+        BenchmarkData.delete(importPath);
+    }
+
+    @Benchmark
+    public Path export() throws Exception {
+        serializer.serialize(storage, exportPath);
+        return exportPath;
+    }
+
+    @Benchmark
+    public Storage restore() throws Exception {
+        return serializer.deserialize(importPath);
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.bmstu_bureau_1440;
+
+import java.nio.file.Path;
+
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.ContextAotProcessor;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.javapoet.ClassName;
+
+import com.bmstu_bureau_1440.accounting.AppConfig;
+import com.bmstu_bureau_1440.accounting.io.TuiConfig;
+
+/**
+ * Build-time step of the {@code aot} Maven profile. Processes the bean definitions of
+ * {@link AppConfig} and {@link TuiConfig} ahead of time and generates an
+ * {@link #initializerName initializer} for each of them, which registers the beans directly:
+ * started with {@code -Dspring.aot.enabled=true}, {@link Main} neither scans the classpath nor
+ * parses the configuration classes.
+ * <p>
+ * Conditions are evaluated here, so the beans of the generated context are those of the
+ * build, e.g. {@code -Daccounting.path-checks=true} has to be passed to the build, not to the
+ * application.
+ */
+public class AccountingAotProcessor extends ContextAotProcessor {
+
+    public AccountingAotProcessor(Class<?> configuration, Settings settings) {
+        super(configuration, settings);
+    }
+
+    /**
+     * @param args the output directories of the generated sources, resources and classes,
+     *             then the group and the artifact id
+     */
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            throw new IllegalArgumentException(
+                    "Usage: AccountingAotProcessor <sources> <resources> <classes> <groupId> <artifactId>");
+        }
+
+        final Settings settings = Settings.builder()
+                .sourceOutput(Path.of(args[0]))
+                .resourceOutput(Path.of(args[1]))
+                .classOutput(Path.of(args[2]))
+                .groupId(args[3])
+                .artifactId(args[4])
+                .build();
+
+        for (Class<?> configuration : new Class<?>[] { AppConfig.class, TuiConfig.class }) {
+            new AccountingAotProcessor(configuration, settings).process();
+        }
+    }
+
+    /**
+     * @return the name of the {@code ApplicationContextInitializer} generated for {@code configuration}
+     */
+    public static String initializerName(Class<?> configuration) {
+        return configuration.getName() + "__" + configuration.getSimpleName() + "ApplicationContextInitializer";
+    }
+
+    @Override
+    protected GenericApplicationContext prepareApplicationContext(Class<?> configuration) {
+        final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(configuration);
+        return context;
+    }
+
+    // the beans of AppConfig are generated for both contexts, the prefix keeps their classes apart
+    @Override
+    protected ClassNameGenerator createClassNameGenerator() {
+        return new ClassNameGenerator(ClassName.get(getApplicationClass()), getApplicationClass().getSimpleName());
+    }
+
+    // both configurations write into the same directories, so only the first run may clear them
+    @Override
+    protected void deleteExistingOutput() {
+        if (getApplicationClass() == AppConfig.class) {
+            super.deleteExistingOutput();
+        }
+    }
+
+}
@@ -2,17 +2,54 @@ package com.bmstu_bureau_1440;
 
 import com.bmstu_bureau_1440.accounting.AppConfig;
 import com.bmstu_bureau_1440.accounting.Application;
+import com.bmstu_bureau_1440.accounting.HeadlessApplication;
+import com.bmstu_bureau_1440.accounting.io.TuiConfig;
+import org.springframework.aot.AotDetector;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.AotApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
 
 public class Main {
 
+    private static final String HEADLESS_FLAG = "--headless";
+
+    /**
+     * Starts the TUI, or with {@code --headless [script]} executes the commands of the script
+     * (stdin if omitted or {@code -}) without initializing the TUI.
+     */
     public static void main(String[] args) {
-        AnnotationConfigApplicationContext context =
-                new AnnotationConfigApplicationContext(AppConfig.class);
+        if (args.length > 0 && HEADLESS_FLAG.equals(args[0])) {
+            final int exitCode;
+            try (ConfigurableApplicationContext context = createContext(AppConfig.class)) {
+                exitCode = context.getBean(HeadlessApplication.class).run(args.length > 1 ? args[1] : "-");
+            }
+            System.exit(exitCode);
+        }
+
+        ConfigurableApplicationContext context = createContext(TuiConfig.class);
 
         Application application = context.getBean(Application.class);
 
         application.run();
     }
 
-}
\ No newline at end of file
+    /**
+     * With {@code -Dspring.aot.enabled=true} the beans are registered by the initializer that
+     * {@link AccountingAotProcessor} generated for {@code configuration} (a jar built with
+     * {@code -Paot}); otherwise the configuration is parsed and the classpath scanned as usual.
+     */
+    private static ConfigurableApplicationContext createContext(Class<?> configuration) {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return new AnnotationConfigApplicationContext(configuration);
+        }
+
+        final GenericApplicationContext context = new GenericApplicationContext();
+        AotApplicationContextInitializer
+                .forInitializerClasses(AccountingAotProcessor.initializerName(configuration))
+                .initialize(context);
+        context.refresh();
+        return context;
+    }
+
+}
@@ -1,11 +1,36 @@
 package com.bmstu_bureau_1440.accounting;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.FilterType;
 
+/**
+ * Core of the application: storage, services, repositories and serializers. The TUI is
+ * excluded here and added by {@link com.bmstu_bureau_1440.accounting.io.TuiConfig}, so that
+ * the headless mode starts without it.
+ */
 @Configuration
-@ComponentScan(basePackageClasses = AppConfig.class)
+@ComponentScan(basePackageClasses = AppConfig.class, excludeFilters = @ComponentScan.Filter(
+        type = FilterType.REGEX, pattern = "com\\.bmstu_bureau_1440\\.accounting\\.(io\\..*|Application)"))
 @EnableAspectJAutoProxy
 public class AppConfig {
+
+    private static final int MAX_IO_THREADS = 8;
+
+    /**
+     * Bounded pool used to read and write export files concurrently. Threads are daemons
+     * so that an unfinished export never keeps the application alive after the TUI exits.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ioExecutor() {
+        final int threads = Math.min(MAX_IO_THREADS, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(Math.max(2, threads),
+                Thread.ofPlatform().name("accounting-io-", 0).daemon().factory());
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.bmstu_bureau_1440.accounting;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
@@ -8,10 +9,14 @@ import org.springframework.stereotype.Component;
 import com.bmstu_bureau_1440.accounting.io.AccountingTUI;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
 import com.bmstu_bureau_1440.accounting.models.Category;
-import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.FileType;
 import com.bmstu_bureau_1440.accounting.models.OperationType;
+import com.bmstu_bureau_1440.accounting.repositories.ChangeLogRepository;
 import com.bmstu_bureau_1440.accounting.repositories.FileStorageRepository;
-import com.bmstu_bureau_1440.accounting.services.AnalyticsService;
+import com.bmstu_bureau_1440.accounting.services.AccountsService;
+import com.bmstu_bureau_1440.accounting.services.CategoriesService;
+import com.bmstu_bureau_1440.accounting.services.ExportScheduler;
+import com.bmstu_bureau_1440.accounting.services.OperationsService;
 
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
@@ -20,34 +25,36 @@ import lombok.SneakyThrows;
 @AllArgsConstructor
 public class Application {
 
-        private AnalyticsService service;
+        private AccountsService accountsService;
+
+        private CategoriesService categoriesService;
+
+        private OperationsService operationsService;
 
         private FileStorageRepository repository;
 
+        private ChangeLogRepository changeLogRepository;
+
         private Storage storage;
 
+        private ExportScheduler exportScheduler;
+
         private AccountingTUI tui;
 
         @SneakyThrows
         public void run() {
-                storage.getAccounts().addAll(List.of(
-                                new BankAccount("My account", BigDecimal.valueOf(994_341.92)),
-                                new BankAccount("Another account", BigDecimal.valueOf(1000.00)),
-                                new BankAccount("My savings", BigDecimal.valueOf(0.00))));
-                storage.getCategories().addAll(List.of(
-                                new Category(OperationType.DEPOSIT, "Salary"),
-                                new Category(OperationType.DEPOSIT, "Gift"),
-                                new Category(OperationType.WITHDRAWAL, "Food"),
-                                new Category(OperationType.WITHDRAWAL, "Transport"),
-                                new Category(OperationType.WITHDRAWAL, "Entertainment"),
-                                new Category(OperationType.WITHDRAWAL, "Other")));
-                storage.getOperations().addAll(List.of(
-                                new Operation(storage.getAccounts().get(0).getId(),
-                                                storage.getCategories().get(0).getId(), BigDecimal.valueOf(20),
-                                                "Test operation"),
-                                new Operation(storage.getAccounts().get(1).getId(),
-                                                storage.getCategories().get(1).getId(), BigDecimal.ZERO,
-                                                "Test operation")));
+                changeLogRepository.restore();
+                if (storage.getAccounts().isEmpty() && storage.getCategories().isEmpty()) {
+                        seed();
+                }
+
+                // e.g. -Daccounting.autosave.interval=PT5M -Daccounting.autosave.format=JSON
+                final String autosaveInterval = System.getProperty("accounting.autosave.interval");
+                if (autosaveInterval != null) {
+                        exportScheduler.configureAutosave(
+                                        FileType.valueOf(System.getProperty("accounting.autosave.format", "BINARY")),
+                                        Duration.parse(autosaveInterval));
+                }
 
                 // repository.exportToFile(FileType.CSV);
                 // repository.exportToFile(FileType.JSON);
@@ -56,4 +63,22 @@ public class Application {
                 tui.run();
         }
 
+        private void seed() {
+                final BankAccount myAccount = accountsService.addNewBankAccount("My account",
+                                BigDecimal.valueOf(994_321.92));
+                final BankAccount anotherAccount = accountsService.addNewBankAccount("Another account",
+                                BigDecimal.valueOf(1000.00));
+                accountsService.addNewBankAccount("My savings", BigDecimal.valueOf(0.00));
+
+                final Category salary = categoriesService.addNewCategory("Salary", OperationType.DEPOSIT);
+                final Category gift = categoriesService.addNewCategory("Gift", OperationType.DEPOSIT);
+                List.of("Food", "Transport", "Entertainment", "Other")
+                                .forEach(name -> categoriesService.addNewCategory(name, OperationType.WITHDRAWAL));
+
+                operationsService.addNewOperation(myAccount.getId(), salary.getId(), BigDecimal.valueOf(20),
+                                "Test operation");
+                operationsService.addNewOperation(anotherAccount.getId(), gift.getId(), BigDecimal.ZERO,
+                                "Test operation");
+        }
+
 }
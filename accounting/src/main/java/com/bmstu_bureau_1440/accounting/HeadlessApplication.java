@@ -0,0 +1,49 @@
+package com.bmstu_bureau_1440.accounting;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.springframework.stereotype.Component;
+
+import com.bmstu_bureau_1440.accounting.components.ScriptRunner;
+import com.bmstu_bureau_1440.accounting.repositories.ChangeLogRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+
+/**
+ * Runs a {@link ScriptRunner} script from a file (or from stdin for {@code -}) against the
+ * journaled storage; the TUI is not part of this context at all.
+ */
+@Component
+@AllArgsConstructor
+public class HeadlessApplication {
+
+        private ChangeLogRepository changeLogRepository;
+
+        private ScriptRunner scriptRunner;
+
+        /**
+         * @return process exit code: 0 if every command succeeded, 1 otherwise
+         */
+        @SneakyThrows
+        public int run(String script) {
+                changeLogRepository.restore();
+
+                final long started = System.nanoTime();
+                final ScriptRunner.Summary summary;
+                try (BufferedReader reader = "-".equals(script)
+                                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+                        summary = scriptRunner.run(reader, System.err);
+                }
+
+                System.err.printf("Executed %d commands, %d failed, in %d ms%n", summary.executed(), summary.failed(),
+                                (System.nanoTime() - started) / 1_000_000);
+                return summary.failed() == 0 ? 0 : 1;
+        }
+
+}
@@ -0,0 +1,185 @@
+package com.bmstu_bureau_1440.accounting;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Entities in insertion order with lookup and removal by id in O(1).
+ * <p>
+ * Every entity occupies a slot; removing one only empties its slot, so no entity is shifted or
+ * compared with {@code equals}. The slots of the live entities are kept in ascending order in an
+ * {@code int} array (a removal moves its tail with one {@code arraycopy}), which the
+ * {@link #asList() list view} is read through by position; empty slots are
+ * dropped by {@code remove} once there are more of them than live entities. Reads never change
+ * anything, so the view may be read from several threads as long as nothing is added or removed.
+ */
+final class SlottedList<T> {
+
+    private static final int MIN_SLOTS_TO_COMPACT = 1024;
+
+    private final Function<T, String> idOf;
+
+    private final ArrayList<T> slots = new ArrayList<>();
+
+    private final Map<String, Integer> slotsById = new HashMap<>();
+
+    // the slots of the live entities in ascending order, the first size() are used
+    private int[] liveSlots = new int[16];
+
+    private final List<T> view = new View();
+
+    private int emptySlots;
+
+    // changes the layout of the slots, checked by iterators of the view
+    private int modifications;
+
+    SlottedList(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    // Queries
+    int size() {
+        return slotsById.size();
+    }
+
+    boolean containsId(String id) {
+        return slotsById.containsKey(id);
+    }
+
+    T get(String id) {
+        final Integer slot = slotsById.get(id);
+        return slot == null ? null : slots.get(slot);
+    }
+
+    /**
+     * @return a read-only view of the live entities in insertion order
+     */
+    List<T> asList() {
+        return view;
+    }
+
+    // Commands
+
+    /**
+     * @return false if an entity with the same id is already present
+     */
+    boolean add(T entity) {
+        final int slot = slots.size();
+        if (slotsById.putIfAbsent(idOf.apply(entity), slot) != null) {
+            return false;
+        }
+
+        slots.add(entity);
+        if (slotsById.size() > liveSlots.length) {
+            liveSlots = Arrays.copyOf(liveSlots, liveSlots.length * 2);
+        }
+        liveSlots[slotsById.size() - 1] = slot;
+        modifications++;
+        return true;
+    }
+
+    /**
+     * @return the removed entity, null if there is none with this id
+     */
+    T remove(String id) {
+        final Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return null;
+        }
+
+        final T entity = slots.set(slot, null);
+        final int live = slotsById.size();
+        final int position = Arrays.binarySearch(liveSlots, 0, live + 1, slot);
+        System.arraycopy(liveSlots, position + 1, liveSlots, position, live - position);
+        emptySlots++;
+        modifications++;
+        if (emptySlots > MIN_SLOTS_TO_COMPACT && emptySlots > slotsById.size()) {
+            compact();
+        }
+        return entity;
+    }
+
+    private void compact() {
+        int next = 0;
+        for (int slot = 0; slot < slots.size(); slot++) {
+            final T entity = slots.get(slot);
+            if (entity == null) {
+                continue;
+            }
+            if (slot != next) {
+                slots.set(next, entity);
+                slotsById.put(idOf.apply(entity), next);
+            }
+            liveSlots[next] = next;
+            next++;
+        }
+
+        slots.subList(next, slots.size()).clear();
+        emptySlots = 0;
+        modifications++;
+    }
+
+    private final class View extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, slotsById.size());
+            return slots.get(liveSlots[index]);
+        }
+
+        @Override
+        public int size() {
+            return slotsById.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+
+                private final int expectedModifications = modifications;
+
+                private int slot = nextLive(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < slots.size();
+                }
+
+                @Override
+                public T next() {
+                    if (modifications != expectedModifications) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    final T entity = slots.get(slot);
+                    slot = nextLive(slot + 1);
+                    return entity;
+                }
+
+            };
+        }
+
+        private int nextLive(int from) {
+            int slot = from;
+            while (slot < slots.size() && slots.get(slot) == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+    }
+
+}
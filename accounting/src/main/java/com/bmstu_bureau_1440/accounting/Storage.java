@@ -1,39 +1,309 @@
 package com.bmstu_bureau_1440.accounting;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.collections4.ListUtils;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
 import com.bmstu_bureau_1440.accounting.models.Category;
 import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import lombok.Getter;
-import lombok.Setter;
+import lombok.NonNull;
 
+/**
+ * In-memory repository of accounts, categories and operations.
+ * <p>
+ * Entities are kept in insertion order in {@link SlottedList}s, which look them up and remove
+ * them by id in O(1), and operations also in the operations-by-account /
+ * operations-by-category secondary indexes. All mutations must go through the
+ * {@code add*} / {@code remove*} methods so that the lists and the indexes never diverge; the
+ * lists themselves are exposed read-only.
+ * <p>
+ * {@link #getVersion()} changes on every mutation, including in-place edits of entities that
+ * are announced with a {@link StorageEvent}, so views can cache whatever they derive from the
+ * content until the version moves. {@link #getMembershipVersion()} moves only when accounts or
+ * categories are added or removed, for views that list them but don't show their content.
+ */
 @Component
 public class Storage {
 
-    @Getter
-    @Setter
-    private List<Operation> operations;
+    private SlottedList<Operation> operations = new SlottedList<>(Operation::getId);
 
-    @Getter
-    @Setter
-    private List<Category> categories;
+    private SlottedList<Category> categories = new SlottedList<>(Category::getId);
 
-    @Getter
-    @Setter
-    private List<BankAccount> accounts;
+    private SlottedList<BankAccount> accounts = new SlottedList<>(BankAccount::getId);
+
+    private Map<String, Map<String, Operation>> operationsByAccountId = new HashMap<>();
+
+    private Map<String, Map<String, Operation>> operationsByCategoryId = new HashMap<>();
+
+    private long version;
+
+    private long membershipVersion;
 
     public Storage(@JsonProperty("operations") List<Operation> operations,
             @JsonProperty("accounts") List<BankAccount> accounts,
             @JsonProperty("categories") List<Category> categories) {
-        this.operations = ListUtils.emptyIfNull(operations);
-        this.accounts = ListUtils.emptyIfNull(accounts);
-        this.categories = ListUtils.emptyIfNull(categories);
+        ListUtils.emptyIfNull(accounts).forEach(this::addAccount);
+        ListUtils.emptyIfNull(categories).forEach(this::addCategory);
+        ListUtils.emptyIfNull(operations).forEach(this::addOperation);
+    }
+
+    // Queries
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public long getMembershipVersion() {
+        return membershipVersion;
+    }
+
+    public List<Operation> getOperations() {
+        return operations.asList();
+    }
+
+    public List<Category> getCategories() {
+        return categories.asList();
+    }
+
+    public List<BankAccount> getAccounts() {
+        return accounts.asList();
+    }
+
+    public Optional<Operation> findOperationById(String id) {
+        return Optional.ofNullable(operations.get(id));
+    }
+
+    public Optional<Category> findCategoryById(String id) {
+        return Optional.ofNullable(categories.get(id));
+    }
+
+    public Optional<BankAccount> findAccountById(String id) {
+        return Optional.ofNullable(accounts.get(id));
+    }
+
+    public Collection<Operation> getOperationsByAccountId(String accountId) {
+        return Collections.unmodifiableCollection(
+                operationsByAccountId.getOrDefault(accountId, Collections.emptyMap()).values());
+    }
+
+    public Collection<Operation> getOperationsByCategoryId(String categoryId) {
+        return Collections.unmodifiableCollection(
+                operationsByCategoryId.getOrDefault(categoryId, Collections.emptyMap()).values());
+    }
+
+    /**
+     * Creates a point-in-time copy of this storage. Entities are copied as well, so later
+     * renames, balance changes or description edits do not leak into the copy.
+     *
+     * @return an independent storage with the same content
+     */
+    public Storage copy() {
+        return new Storage(copyOperations(), copyAccounts(), copyCategories());
+    }
+
+    /**
+     * Same as {@link #copy()}, but the copy is not indexed, which takes most of the time of a
+     * copy. Meant for serializers, which only iterate the lists: the lookups of the returned
+     * storage find nothing and it must not be modified.
+     *
+     * @return a read-only storage with the same content
+     */
+    public Storage snapshot() {
+        return new Snapshot(copyOperations(), copyAccounts(), copyCategories());
+    }
+
+    // Commands
+    @EventListener
+    public void onStorageEvent(StorageEvent event) {
+        version++;
+    }
+
+    public void addOperation(@NonNull Operation operation) {
+        if (!operations.add(operation)) {
+            throw new IllegalArgumentException("Operation already exists: " + operation.getId());
+        }
+
+        version++;
+        operationsByAccountId.computeIfAbsent(operation.getBankAccountId(), id -> new LinkedHashMap<>())
+                .put(operation.getId(), operation);
+        operationsByCategoryId.computeIfAbsent(operation.getCategoryId(), id -> new LinkedHashMap<>())
+                .put(operation.getId(), operation);
+    }
+
+    /**
+     * Appends all {@code newOperations} at once: either every operation is added or, if any id
+     * is already taken or repeated, none is.
+     *
+     * @param newOperations the operations to append, in order; must not be null
+     */
+    public void addOperations(@NonNull List<Operation> newOperations) {
+        final Set<String> newIds = HashSet.newHashSet(newOperations.size());
+        for (Operation operation : newOperations) {
+            if (operations.containsId(operation.getId()) || !newIds.add(operation.getId())) {
+                throw new IllegalArgumentException("Operation already exists: " + operation.getId());
+            }
+        }
+
+        version++;
+        for (Operation operation : newOperations) {
+            operations.add(operation);
+            operationsByAccountId.computeIfAbsent(operation.getBankAccountId(), id -> new LinkedHashMap<>())
+                    .put(operation.getId(), operation);
+            operationsByCategoryId.computeIfAbsent(operation.getCategoryId(), id -> new LinkedHashMap<>())
+                    .put(operation.getId(), operation);
+        }
+    }
+
+    public boolean removeOperation(@NonNull Operation operation) {
+        if (operations.remove(operation.getId()) == null) {
+            return false;
+        }
+
+        version++;
+        removeFromIndex(operationsByAccountId, operation.getBankAccountId(), operation.getId());
+        removeFromIndex(operationsByCategoryId, operation.getCategoryId(), operation.getId());
+        return true;
+    }
+
+    public void addCategory(@NonNull Category category) {
+        if (!categories.add(category)) {
+            throw new IllegalArgumentException("Category already exists: " + category.getId());
+        }
+
+        version++;
+        membershipVersion++;
+    }
+
+    public boolean removeCategory(@NonNull Category category) {
+        if (categories.remove(category.getId()) == null) {
+            return false;
+        }
+
+        version++;
+        membershipVersion++;
+        return true;
+    }
+
+    public void addAccount(@NonNull BankAccount account) {
+        if (!accounts.add(account)) {
+            throw new IllegalArgumentException("Account already exists: " + account.getId());
+        }
+
+        version++;
+        membershipVersion++;
+    }
+
+    public boolean removeAccount(@NonNull BankAccount account) {
+        if (accounts.remove(account.getId()) == null) {
+            return false;
+        }
+
+        version++;
+        membershipVersion++;
+        return true;
+    }
+
+    /**
+     * Replaces the whole content of this storage with the content of {@code other} in O(1) by
+     * taking over its lists and indexes, so a fully built staging storage can be swapped in
+     * at once. {@code other} must not be used afterwards.
+     *
+     * @param other the storage to take entities from; must not be null
+     */
+    public void replaceWith(@NonNull Storage other) {
+        operations = other.operations;
+        categories = other.categories;
+        accounts = other.accounts;
+        operationsByAccountId = other.operationsByAccountId;
+        operationsByCategoryId = other.operationsByCategoryId;
+        version++;
+        membershipVersion++;
+
+        other.operations = new SlottedList<>(Operation::getId);
+        other.categories = new SlottedList<>(Category::getId);
+        other.accounts = new SlottedList<>(BankAccount::getId);
+        other.operationsByAccountId = new HashMap<>();
+        other.operationsByCategoryId = new HashMap<>();
+    }
+
+    private List<Operation> copyOperations() {
+        return getOperations().stream()
+                .map(operation -> new Operation(operation.getId(), operation.getBankAccountId(),
+                        operation.getCategoryId(), operation.getAmount(), operation.getDate(),
+                        operation.getDescription()))
+                .toList();
+    }
+
+    private List<BankAccount> copyAccounts() {
+        return getAccounts().stream()
+                .map(account -> new BankAccount(account.getId(), account.getName(), account.getBalance()))
+                .toList();
+    }
+
+    private List<Category> copyCategories() {
+        return getCategories().stream()
+                .map(category -> new Category(category.getId(), category.getType(), category.getName()))
+                .toList();
+    }
+
+    private static void removeFromIndex(Map<String, Map<String, Operation>> index, String key, String operationId) {
+        var operations = index.get(key);
+        if (operations == null) {
+            return;
+        }
+
+        operations.remove(operationId);
+        if (operations.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static final class Snapshot extends Storage {
+
+        private final List<Operation> copiedOperations;
+
+        private final List<BankAccount> copiedAccounts;
+
+        private final List<Category> copiedCategories;
+
+        Snapshot(List<Operation> operations, List<BankAccount> accounts, List<Category> categories) {
+            super(null, null, null);
+            this.copiedOperations = operations;
+            this.copiedAccounts = accounts;
+            this.copiedCategories = categories;
+        }
+
+        @Override
+        public List<Operation> getOperations() {
+            return copiedOperations;
+        }
+
+        @Override
+        public List<Category> getCategories() {
+            return copiedCategories;
+        }
+
+        @Override
+        public List<BankAccount> getAccounts() {
+            return copiedAccounts;
+        }
+
     }
 
 }
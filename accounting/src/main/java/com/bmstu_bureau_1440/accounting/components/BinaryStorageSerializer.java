@@ -0,0 +1,324 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+import com.bmstu_bureau_1440.accounting.utils.CheckIfReadable;
+import com.bmstu_bureau_1440.accounting.utils.CheckIfWritable;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
+
+import lombok.NonNull;
+
+/**
+ * Compact columnar binary format.
+ * <p>
+ * Layout (big-endian): magic and version, an id dictionary (UUIDs as two longs, anything else
+ * as a length-prefixed UTF-8 string), a string dictionary for names and descriptions, then the
+ * accounts, categories and operations tables, each one column after another. Entities refer to
+ * ids and strings by their dictionary index ({@code -1} stands for null), amounts are stored as
+ * unscaled longs plus a scale byte and dates as UTC epoch seconds plus nanos. The file is read
+ * through a memory mapping.
+ */
+@Component
+public class BinaryStorageSerializer implements StorageSerializer {
+
+    private static final String BINARY_FILENAME = "accounting.bin";
+
+    private static final int MAGIC = 0x41434342; // "ACCB"
+    private static final int VERSION = 1;
+
+    private static final byte UUID_ID = 0;
+    private static final byte STRING_ID = 1;
+
+    private static final int NULL_REFERENCE = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    @Override
+    public FileType getFileType() {
+        return FileType.BINARY;
+    }
+
+    @Override
+    @CheckIfReadable(filenames = { BINARY_FILENAME })
+    public Storage deserialize(@NonNull Path path) throws Exception {
+        try (var channel = FileAccess.openForReading(path.resolve(BINARY_FILENAME))) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File is too large to be mapped: " + path.resolve(BINARY_FILENAME));
+            }
+
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    @CheckIfWritable
+    public void serialize(@NonNull Storage object, @NonNull Path path) throws Exception {
+        try (var output = new DataOutputStream(new BufferedOutputStream(
+                FileAccess.newOutputStream(FileAccess.createDirectories(path).resolve(BINARY_FILENAME)), 1 << 16))) {
+            write(object, output);
+        }
+    }
+
+    private static void write(Storage storage, DataOutputStream output) throws IOException {
+        final List<BankAccount> accounts = storage.getAccounts();
+        final List<Category> categories = storage.getCategories();
+        final List<Operation> operations = storage.getOperations();
+
+        final Dictionary ids = new Dictionary();
+        final Dictionary strings = new Dictionary();
+        accounts.forEach(account -> {
+            ids.add(account.getId());
+            strings.add(account.getName());
+        });
+        categories.forEach(category -> {
+            ids.add(category.getId());
+            strings.add(category.getName());
+        });
+        operations.forEach(operation -> {
+            ids.add(operation.getId());
+            ids.add(operation.getBankAccountId());
+            ids.add(operation.getCategoryId());
+            strings.add(operation.getDescription());
+        });
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        output.writeInt(ids.values.size());
+        for (String id : ids.values) {
+            final UUID uuid = toUuid(id);
+            if (uuid != null) {
+                output.writeByte(UUID_ID);
+                output.writeLong(uuid.getMostSignificantBits());
+                output.writeLong(uuid.getLeastSignificantBits());
+            } else {
+                output.writeByte(STRING_ID);
+                writeString(output, id);
+            }
+        }
+
+        output.writeInt(strings.values.size());
+        for (String string : strings.values) {
+            writeString(output, string);
+        }
+
+        output.writeInt(accounts.size());
+        for (BankAccount account : accounts) {
+            output.writeInt(ids.indexOf(account.getId()));
+        }
+        for (BankAccount account : accounts) {
+            output.writeInt(strings.indexOf(account.getName()));
+        }
+        writeAmounts(output, accounts.stream().map(BankAccount::getBalance).toList());
+
+        output.writeInt(categories.size());
+        for (Category category : categories) {
+            output.writeInt(ids.indexOf(category.getId()));
+        }
+        for (Category category : categories) {
+            output.writeByte(category.getType() == null ? NULL_REFERENCE : category.getType().ordinal());
+        }
+        for (Category category : categories) {
+            output.writeInt(strings.indexOf(category.getName()));
+        }
+
+        output.writeInt(operations.size());
+        for (Operation operation : operations) {
+            output.writeInt(ids.indexOf(operation.getId()));
+        }
+        for (Operation operation : operations) {
+            output.writeInt(ids.indexOf(operation.getBankAccountId()));
+        }
+        for (Operation operation : operations) {
+            output.writeInt(ids.indexOf(operation.getCategoryId()));
+        }
+        writeAmounts(output, operations.stream().map(Operation::getAmount).toList());
+        for (Operation operation : operations) {
+            final LocalDateTime date = operation.getDate();
+            output.writeLong(date == null ? NULL_DATE : date.toEpochSecond(ZoneOffset.UTC));
+        }
+        for (Operation operation : operations) {
+            final LocalDateTime date = operation.getDate();
+            output.writeInt(date == null ? 0 : date.getNano());
+        }
+        for (Operation operation : operations) {
+            output.writeInt(strings.indexOf(operation.getDescription()));
+        }
+    }
+
+    private static Storage read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an accounting binary file");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary format version: " + version);
+        }
+
+        final String[] ids = new String[buffer.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.get() == UUID_ID
+                    ? new UUID(buffer.getLong(), buffer.getLong()).toString()
+                    : readString(buffer);
+        }
+
+        final String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer);
+        }
+
+        final int accountsCount = buffer.getInt();
+        final int[] accountIds = readInts(buffer, accountsCount);
+        final int[] accountNames = readInts(buffer, accountsCount);
+        final BigDecimal[] balances = readAmounts(buffer, accountsCount);
+
+        final List<BankAccount> accounts = new ArrayList<>(accountsCount);
+        for (int i = 0; i < accountsCount; i++) {
+            accounts.add(new BankAccount(lookup(ids, accountIds[i]), lookup(strings, accountNames[i]), balances[i]));
+        }
+
+        final int categoriesCount = buffer.getInt();
+        final int[] categoryIds = readInts(buffer, categoriesCount);
+        final byte[] categoryTypes = new byte[categoriesCount];
+        buffer.get(categoryTypes);
+        final int[] categoryNames = readInts(buffer, categoriesCount);
+
+        final List<Category> categories = new ArrayList<>(categoriesCount);
+        for (int i = 0; i < categoriesCount; i++) {
+            categories.add(new Category(
+                    lookup(ids, categoryIds[i]),
+                    categoryTypes[i] == NULL_REFERENCE ? null : OPERATION_TYPES[categoryTypes[i]],
+                    lookup(strings, categoryNames[i])));
+        }
+
+        final int operationsCount = buffer.getInt();
+        final int[] operationIds = readInts(buffer, operationsCount);
+        final int[] operationAccounts = readInts(buffer, operationsCount);
+        final int[] operationCategories = readInts(buffer, operationsCount);
+        final BigDecimal[] amounts = readAmounts(buffer, operationsCount);
+        final long[] seconds = new long[operationsCount];
+        buffer.asLongBuffer().get(seconds);
+        buffer.position(buffer.position() + operationsCount * Long.BYTES);
+        final int[] nanos = readInts(buffer, operationsCount);
+        final int[] descriptions = readInts(buffer, operationsCount);
+
+        final List<Operation> operations = new ArrayList<>(operationsCount);
+        for (int i = 0; i < operationsCount; i++) {
+            operations.add(new Operation(
+                    lookup(ids, operationIds[i]),
+                    lookup(ids, operationAccounts[i]),
+                    lookup(ids, operationCategories[i]),
+                    amounts[i],
+                    seconds[i] == NULL_DATE ? null : LocalDateTime.ofEpochSecond(seconds[i], nanos[i], ZoneOffset.UTC),
+                    lookup(strings, descriptions[i])));
+        }
+
+        return new Storage(operations, accounts, categories);
+    }
+
+    private static void writeAmounts(DataOutputStream output, List<BigDecimal> amounts) throws IOException {
+        for (BigDecimal amount : amounts) {
+            if (amount != null && (amount.scale() <= Byte.MIN_VALUE || amount.scale() > Byte.MAX_VALUE
+                    || amount.unscaledValue().bitLength() >= Long.SIZE)) {
+                throw new IllegalArgumentException("Amount cannot be stored in the binary format: " + amount);
+            }
+            output.writeLong(amount == null ? 0 : amount.unscaledValue().longValue());
+        }
+        for (BigDecimal amount : amounts) {
+            output.writeByte(amount == null ? Byte.MIN_VALUE : amount.scale());
+        }
+    }
+
+    private static BigDecimal[] readAmounts(ByteBuffer buffer, int count) {
+        final long[] unscaled = new long[count];
+        buffer.asLongBuffer().get(unscaled);
+        buffer.position(buffer.position() + count * Long.BYTES);
+
+        final byte[] scales = new byte[count];
+        buffer.get(scales);
+
+        final BigDecimal[] amounts = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = scales[i] == Byte.MIN_VALUE ? null : BigDecimal.valueOf(unscaled[i], scales[i]);
+        }
+        return amounts;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        final int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String lookup(String[] dictionary, int index) {
+        return index == NULL_REFERENCE ? null : dictionary[index];
+    }
+
+    private static UUID toUuid(String id) {
+        try {
+            final UUID uuid = UUID.fromString(id);
+            // only canonical lowercase UUIDs survive the round trip unchanged
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Insertion-ordered set of distinct non-null strings addressed by index.
+     */
+    private static final class Dictionary {
+
+        private final List<String> values = new ArrayList<>();
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        void add(String value) {
+            if (value != null && indexes.putIfAbsent(value, values.size()) == null) {
+                values.add(value);
+            }
+        }
+
+        int indexOf(String value) {
+            return value == null ? NULL_REFERENCE : indexes.get(value);
+        }
+
+    }
+
+}
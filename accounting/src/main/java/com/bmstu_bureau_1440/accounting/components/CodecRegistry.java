@@ -0,0 +1,89 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+import lombok.Getter;
+import lombok.NonNull;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.dataformat.csv.CsvMapper;
+import tools.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Jackson readers, writers and CSV schemas built once per model class and shared by the
+ * serializers. They are immutable and thread-safe, so an export doesn't pay for introspecting
+ * the class and resolving its serializers again.
+ * <p>
+ * Codecs of {@link Operation}, {@link BankAccount}, {@link Category} and {@link Storage} are
+ * built up front, any other class on first use. JSON is pretty-printed unless
+ * {@value #COMPACT_JSON_PROPERTY} is set to {@code true}.
+ */
+@Component
+public class CodecRegistry {
+
+    public static final String COMPACT_JSON_PROPERTY = "accounting.json.compact";
+
+    /**
+     * @param schema the columns of {@code type} with a header row
+     * @param writer writes rows with {@link #schema} without flushing after every row
+     */
+    public record CsvCodec<T>(Class<T> type, CsvSchema schema, ObjectReader reader, ObjectWriter writer) {
+    }
+
+    public record JsonCodec<T>(Class<T> type, ObjectReader reader, ObjectWriter writer) {
+    }
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Getter
+    private final boolean compactJson;
+
+    private final Map<Class<?>, CsvCodec<?>> csvCodecs = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, JsonCodec<?>> jsonCodecs = new ConcurrentHashMap<>();
+
+    public CodecRegistry() {
+        this(Boolean.getBoolean(COMPACT_JSON_PROPERTY));
+    }
+
+    public CodecRegistry(boolean compactJson) {
+        this.compactJson = compactJson;
+
+        for (Class<?> type : new Class<?>[] { Operation.class, BankAccount.class, Category.class }) {
+            csv(type);
+        }
+        json(Storage.class);
+    }
+
+    // Queries
+    @SuppressWarnings("unchecked")
+    public <T> CsvCodec<T> csv(@NonNull Class<T> type) {
+        return (CsvCodec<T>) csvCodecs.computeIfAbsent(type, key -> {
+            final CsvSchema schema = csvMapper.schemaFor(type).withHeader();
+            return new CsvCodec<>(type, schema,
+                    csvMapper.readerFor(type).with(schema),
+                    // a flush per row would write every row separately and cut compressed streams into tiny blocks
+                    csvMapper.writer(schema).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> JsonCodec<T> json(@NonNull Class<T> type) {
+        return (JsonCodec<T>) jsonCodecs.computeIfAbsent(type, key -> new JsonCodec<>(type,
+                jsonMapper.readerFor(type),
+                compactJson ? jsonMapper.writerFor(type) : jsonMapper.writerFor(type).withDefaultPrettyPrinter()));
+    }
+
+}
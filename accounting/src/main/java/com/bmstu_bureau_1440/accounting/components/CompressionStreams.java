@@ -0,0 +1,98 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
+
+import lombok.NonNull;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Opens files through a streaming {@link Compression} codec. LZ4 uses the standard frame format
+ * (readable by the {@code lz4} command line tool) with the pure-Java implementations of the
+ * codec and of the checksum, so no native library is loaded.
+ */
+public final class CompressionStreams {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.safeInstance();
+    private static final XXHashFactory XXHASH = XXHashFactory.safeInstance();
+
+    private CompressionStreams() {
+    }
+
+    /**
+     * Appends the extension of {@code compression} to the file name, e.g.
+     * {@code accounting.json} becomes {@code accounting.json.gz}.
+     */
+    public static Path resolve(@NonNull Path directory, @NonNull String filename, @NonNull Compression compression) {
+        return directory.resolve(filename + compression.getExtension());
+    }
+
+    public static InputStream newInputStream(@NonNull Path path, @NonNull Compression compression)
+            throws IOException {
+        final InputStream input = FileAccess.newInputStream(path);
+        try {
+            return switch (compression) {
+                case NONE -> new BufferedInputStream(input, BUFFER_SIZE);
+                case GZIP -> new GZIPInputStream(input, BUFFER_SIZE);
+                case LZ4 -> new BufferedInputStream(
+                        new LZ4FrameInputStream(input, LZ4.safeDecompressor(), XXHASH.hash32()), BUFFER_SIZE);
+            };
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public static OutputStream newOutputStream(@NonNull Path path, @NonNull Compression compression)
+            throws IOException {
+        final OutputStream output = FileAccess.newOutputStream(path);
+        try {
+            return switch (compression) {
+                case NONE -> new BufferedOutputStream(output, BUFFER_SIZE);
+                case GZIP -> new BufferedOutputStream(new GZIPOutputStream(output, BUFFER_SIZE), BUFFER_SIZE);
+                case LZ4 -> new BufferedOutputStream(new LZ4FrameOutputStream(output,
+                        LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB, -1L, LZ4.fastCompressor(), XXHASH.hash32(),
+                        LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE), BUFFER_SIZE);
+            };
+        } catch (IOException | RuntimeException e) {
+            output.close();
+            throw e;
+        }
+    }
+
+    public static BufferedReader newReader(@NonNull Path path, @NonNull Compression compression)
+            throws IOException {
+        if (compression == Compression.NONE) {
+            return FileAccess.newBufferedReader(path);
+        }
+        return new BufferedReader(new InputStreamReader(newInputStream(path, compression), StandardCharsets.UTF_8));
+    }
+
+    public static BufferedWriter newWriter(@NonNull Path path, @NonNull Compression compression)
+            throws IOException {
+        if (compression == Compression.NONE) {
+            return FileAccess.newBufferedWriter(path);
+        }
+        return new BufferedWriter(new OutputStreamWriter(newOutputStream(path, compression), StandardCharsets.UTF_8));
+    }
+
+}
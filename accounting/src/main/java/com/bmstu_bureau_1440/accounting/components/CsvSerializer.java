@@ -1,20 +1,23 @@
 package com.bmstu_bureau_1440.accounting.components;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Component;
 
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
+
 import lombok.NonNull;
-import tools.jackson.dataformat.csv.CsvMapper;
-import tools.jackson.dataformat.csv.CsvSchema;
+import lombok.RequiredArgsConstructor;
 
 @Component
+@RequiredArgsConstructor
 public class CsvSerializer {
 
-    private final CsvMapper mapper = new CsvMapper();
+    private final CodecRegistry codecs;
 
     /**
      * Deserializes a CSV file into a list of objects of the specified class type.
@@ -26,30 +29,86 @@ public class CsvSerializer {
      * @throws Exception if an error occurs during reading or parsing
      */
     public <T> List<T> deserialize(@NonNull Path path, @NonNull Class<T> clazz) throws Exception {
-        CsvSchema schema = mapper.schemaFor(clazz).withHeader();
-        try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            return mapper.readerFor(clazz)
-                    .with(schema)
+        try (var reader = FileAccess.newBufferedReader(path)) {
+            return codecs.csv(clazz).reader()
                     .<T>readValues(reader)
                     .readAll();
         }
     }
 
     /**
-     * Serializes a list of objects into a CSV file at the specified path.
-     * The column layout and header are derived from {@code clazz}, so an empty
-     * list still produces a header-only file.
+     * Reads a CSV file row by row and hands the deserialized objects over to
+     * {@code consumer} in chunks of at most {@code chunkSize} elements, so memory
+     * usage does not depend on the size of the file.
+     *
+     * @param path      the path to the CSV file to read from; must not be null
+     * @param clazz     the class type of the objects to deserialize into
+     * @param chunkSize the maximum number of objects passed to a single call of
+     *                  {@code consumer}; must be positive
+     * @param consumer  the callback receiving every chunk; the list must not be
+     *                  retained, it is reused for the next chunk
+     * @throws Exception if an error occurs during reading or parsing
+     */
+    public <T> void deserialize(@NonNull Path path, @NonNull Class<T> clazz, int chunkSize,
+            @NonNull Consumer<List<T>> consumer) throws Exception {
+        deserialize(path, Compression.NONE, clazz, chunkSize, consumer);
+    }
+
+    /**
+     * Same as {@link #deserialize(Path, Class, int, Consumer)} for a file written
+     * with the specified {@code compression}.
+     */
+    public <T> void deserialize(@NonNull Path path, @NonNull Compression compression, @NonNull Class<T> clazz,
+            int chunkSize, @NonNull Consumer<List<T>> consumer) throws Exception {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        try (var reader = CompressionStreams.newReader(path, compression);
+                var iterator = codecs.csv(clazz).reader().<T>readValues(reader)) {
+            final List<T> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNextValue()) {
+                chunk.add(iterator.nextValue());
+                if (chunk.size() == chunkSize) {
+                    consumer.accept(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * Serializes objects into a CSV file at the specified path, writing them one
+     * row at a time as they are iterated, so the objects are never copied into an
+     * intermediate collection. The column layout and header are derived from
+     * {@code clazz}, so an empty input still produces a header-only file.
      *
-     * @param objects the list of objects to serialize; must not be null
+     * @param objects the objects to serialize; must not be null
      * @param clazz   the element class used to derive the CSV schema; must not be
      *                null
      * @param path    the path to the CSV file to write to; must not be null
      * @throws Exception if an error occurs during writing or serialization
      */
-    public <T> void serialize(@NonNull List<T> objects, @NonNull Class<T> clazz, @NonNull Path path) throws Exception {
-        CsvSchema schema = mapper.schemaFor(clazz).withHeader();
-        try (var writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            mapper.writer(schema).writeValue(writer, objects);
+    public <T> void serialize(@NonNull Iterable<? extends T> objects, @NonNull Class<T> clazz, @NonNull Path path)
+            throws Exception {
+        serialize(objects, clazz, Compression.NONE, path);
+    }
+
+    /**
+     * Same as {@link #serialize(Iterable, Class, Path)}, compressing the file with
+     * the specified {@code compression}.
+     */
+    public <T> void serialize(@NonNull Iterable<? extends T> objects, @NonNull Class<T> clazz,
+            @NonNull Compression compression, @NonNull Path path) throws Exception {
+        try (var writer = CompressionStreams.newWriter(path, compression)) {
+            try (var sequenceWriter = codecs.csv(clazz).writer().writeValues(writer)) {
+                for (T object : objects) {
+                    sequenceWriter.write(object);
+                }
+            }
         }
     }
 }
@@ -2,70 +2,223 @@ package com.bmstu_bureau_1440.accounting.components;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
 
 import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.Storage;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
 import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Compression;
 import com.bmstu_bureau_1440.accounting.models.FileType;
 import com.bmstu_bureau_1440.accounting.models.Operation;
 import com.bmstu_bureau_1440.accounting.utils.CheckIfReadable;
 import com.bmstu_bureau_1440.accounting.utils.CheckIfWritable;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Stores accounts, categories and operations in separate CSV files. Operations are split
+ * into {@value #OPERATIONS_PARTS} part files; all files are written and read concurrently
+ * on the shared IO executor. A single {@code operations.csv} (the previous layout) is
+ * still accepted on import. With a {@link Compression} every file is compressed on its own
+ * and gets the codec extension, e.g. {@code operations-0.csv.gz}.
+ */
 @Component
 @RequiredArgsConstructor
 public class CsvStorageSerializer implements StorageSerializer {
 
     private final CsvSerializer csvSerializer;
 
+    private final ExecutorService ioExecutor;
+
     private static final String OPERATIONS_FILENAME = "operations.csv";
+    private static final String OPERATIONS_PART_FILENAME = "operations-%d.csv";
     private static final String ACCOUNTS_FILENAME = "accounts.csv";
     private static final String CATEGORIES_FILENAME = "categories.csv";
 
+    private static final int OPERATIONS_PARTS = 4;
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private static final int QUEUED_CHUNKS = 4;
+
+    private static final List<Operation> END_OF_PART = List.of();
+
     @Override
     public FileType getFileType() {
         return FileType.CSV;
     }
 
     @Override
-    @CheckIfReadable(filenames = { OPERATIONS_FILENAME, ACCOUNTS_FILENAME, CATEGORIES_FILENAME })
+    @CheckIfReadable(filenames = { ACCOUNTS_FILENAME, CATEGORIES_FILENAME })
     public Storage deserialize(@NonNull Path path) throws Exception {
-        var operations = csvSerializer.deserialize(
-                path.resolve(OPERATIONS_FILENAME),
-                Operation.class);
+        return deserialize(Compression.NONE, path);
+    }
 
-        var accounts = csvSerializer.deserialize(
-                path.resolve(ACCOUNTS_FILENAME),
-                BankAccount.class);
+    @Override
+    @CheckIfReadable(filenames = { ACCOUNTS_FILENAME, CATEGORIES_FILENAME })
+    public Storage deserialize(@NonNull Compression compression, @NonNull Path path) throws Exception {
+        final Future<List<BankAccount>> accounts = ioExecutor.submit(
+                () -> read(CompressionStreams.resolve(path, ACCOUNTS_FILENAME, compression), compression,
+                        BankAccount.class));
+        final Future<List<Category>> categories = ioExecutor.submit(
+                () -> read(CompressionStreams.resolve(path, CATEGORIES_FILENAME, compression), compression,
+                        Category.class));
+        final List<OperationsPart> operationParts = new ArrayList<>();
+        for (Path operationsPath : findOperationFiles(path, compression)) {
+            operationParts.add(new OperationsPart(operationsPath, compression));
+        }
+
+        try {
+            final Storage storage = new Storage(null, null, null);
+            await(accounts).forEach(storage::addAccount);
+            await(categories).forEach(storage::addCategory);
+            // parts are appended in file order so that the operations keep their original order
+            for (OperationsPart part : operationParts) {
+                part.appendTo(storage);
+            }
+            return storage;
+        } finally {
+            // stops the readers that are still blocked on a full queue if appending failed
+            operationParts.forEach(OperationsPart::cancel);
+        }
+    }
 
-        var categories = csvSerializer.deserialize(
-                path.resolve(CATEGORIES_FILENAME),
-                Category.class);
+    @Override
+    @CheckIfWritable
+    public void serialize(@NonNull Storage object, @NonNull Path path) throws Exception {
+        serialize(object, Compression.NONE, path);
+    }
 
-        return new Storage(operations, accounts, categories);
+    @Override
+    @CheckIfWritable
+    public void serialize(@NonNull Storage object, @NonNull Compression compression, @NonNull Path path)
+            throws Exception {
+        serialize(object, compression, rows -> {
+        }, path);
     }
 
     @Override
     @CheckIfWritable
-    public void serialize(@NonNull Storage object, @NonNull Path path) throws Exception {
-        csvSerializer.serialize(
-                object.getOperations(),
-                Operation.class,
-                Files.createDirectories(path).resolve(OPERATIONS_FILENAME));
-
-        csvSerializer.serialize(
-                object.getAccounts(),
-                BankAccount.class,
-                Files.createDirectories(path).resolve(ACCOUNTS_FILENAME));
-
-        csvSerializer.serialize(
-                object.getCategories(),
-                Category.class,
-                Files.createDirectories(path).resolve(CATEGORIES_FILENAME));
+    public void serialize(@NonNull Storage object, @NonNull Compression compression,
+            @NonNull LongConsumer rowsWritten, @NonNull Path path) throws Exception {
+        FileAccess.createDirectories(path);
+
+        final List<Operation> operations = object.getOperations();
+        final int partSize = Math.ceilDiv(operations.size(), OPERATIONS_PARTS);
+
+        final List<Future<?>> writes = new ArrayList<>();
+        writes.add(ioExecutor.submit(() -> write(object.getAccounts(), BankAccount.class, compression,
+                CompressionStreams.resolve(path, ACCOUNTS_FILENAME, compression), rowsWritten)));
+        writes.add(ioExecutor.submit(() -> write(object.getCategories(), Category.class, compression,
+                CompressionStreams.resolve(path, CATEGORIES_FILENAME, compression), rowsWritten)));
+        for (int part = 0; part < OPERATIONS_PARTS; part++) {
+            final List<Operation> partOperations = operations.subList(
+                    Math.min(operations.size(), part * partSize),
+                    Math.min(operations.size(), (part + 1) * partSize));
+            final Path partPath = operationsPartPath(path, part, compression);
+            writes.add(ioExecutor.submit(
+                    () -> write(partOperations, Operation.class, compression, partPath, rowsWritten)));
+        }
+
+        for (Future<?> write : writes) {
+            await(write);
+        }
+    }
+
+    private List<Path> findOperationFiles(Path path, Compression compression) {
+        final List<Path> parts = new ArrayList<>();
+        for (int part = 0; Files.isReadable(operationsPartPath(path, part, compression)); part++) {
+            parts.add(operationsPartPath(path, part, compression));
+        }
+        if (!parts.isEmpty()) {
+            return parts;
+        }
+
+        // the single-file layout of older exports; a missing file is reported when it is opened
+        return List.of(CompressionStreams.resolve(path, OPERATIONS_FILENAME, compression));
+    }
+
+    private <T> List<T> read(Path path, Compression compression, Class<T> clazz) throws Exception {
+        final List<T> objects = new ArrayList<>();
+        csvSerializer.deserialize(path, compression, clazz, CHUNK_SIZE, objects::addAll);
+        return objects;
+    }
+
+    private <T> Void write(List<T> objects, Class<T> clazz, Compression compression, Path path,
+            LongConsumer rowsWritten) throws Exception {
+        csvSerializer.serialize(objects, clazz, compression, path);
+        rowsWritten.accept(objects.size());
+        return null;
+    }
+
+    /**
+     * One operations file read on the IO executor and handed over to the importing thread in
+     * chunks. The reader waits while {@value #QUEUED_CHUNKS} chunks are queued, so the memory
+     * taken by an import is the staging storage plus a few chunks per part, whatever the size
+     * of the files.
+     */
+    private final class OperationsPart {
+
+        private final BlockingQueue<List<Operation>> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+
+        private final Future<Void> reader;
+
+        OperationsPart(Path path, Compression compression) {
+            reader = ioExecutor.submit(() -> {
+                try {
+                    // the chunk passed to the consumer is reused for the next one
+                    csvSerializer.deserialize(path, compression, Operation.class, CHUNK_SIZE,
+                            chunk -> put(new ArrayList<>(chunk)));
+                } finally {
+                    chunks.put(END_OF_PART);
+                }
+                return null;
+            });
+        }
+
+        void appendTo(Storage storage) throws Exception {
+            for (List<Operation> chunk = chunks.take(); chunk != END_OF_PART; chunk = chunks.take()) {
+                chunk.forEach(storage::addOperation);
+            }
+            await(reader);
+        }
+
+        void cancel() {
+            reader.cancel(true);
+        }
+
+        private void put(List<Operation> chunk) {
+            try {
+                chunks.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import was cancelled", e);
+            }
+        }
+
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static Path operationsPartPath(Path path, int part, Compression compression) {
+        return CompressionStreams.resolve(path, OPERATIONS_PART_FILENAME.formatted(part), compression);
     }
 
 }
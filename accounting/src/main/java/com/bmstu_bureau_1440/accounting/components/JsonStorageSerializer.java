@@ -1,19 +1,21 @@
 package com.bmstu_bureau_1440.accounting.components;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.Compression;
 import com.bmstu_bureau_1440.accounting.models.FileType;
 import com.bmstu_bureau_1440.accounting.utils.CheckIfReadable;
 import com.bmstu_bureau_1440.accounting.utils.CheckIfWritable;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import tools.jackson.databind.ObjectMapper;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 @Component
+@RequiredArgsConstructor
 public class JsonStorageSerializer implements StorageSerializer {
 
-    ObjectMapper mapper = new ObjectMapper();
+    private final CodecRegistry codecs;
 
     private static final String JSON_FILENAME = "accounting.json";
 
@@ -25,14 +27,30 @@ public class JsonStorageSerializer implements StorageSerializer {
     @Override
     @CheckIfReadable(filenames = {JSON_FILENAME})
     public Storage deserialize(Path path) throws Exception {
-        return mapper.readValue(path.resolve(JSON_FILENAME), Storage.class);
+        return deserialize(Compression.NONE, path);
+    }
+
+    @Override
+    @CheckIfReadable(filenames = {JSON_FILENAME})
+    public Storage deserialize(Compression compression, Path path) throws Exception {
+        try (var input = CompressionStreams.newInputStream(
+                CompressionStreams.resolve(path, JSON_FILENAME, compression), compression)) {
+            return codecs.json(Storage.class).reader().readValue(input);
+        }
     }
 
     @Override
     @CheckIfWritable
     public void serialize(Storage object, Path path) throws Exception {
-        mapper.writerWithDefaultPrettyPrinter().writeValue(
-                Files.createDirectories(path).resolve(JSON_FILENAME), object
-        );
+        serialize(object, Compression.NONE, path);
+    }
+
+    @Override
+    @CheckIfWritable
+    public void serialize(Storage object, Compression compression, Path path) throws Exception {
+        try (var output = CompressionStreams.newOutputStream(
+                CompressionStreams.resolve(FileAccess.createDirectories(path), JSON_FILENAME, compression), compression)) {
+            codecs.json(Storage.class).writer().writeValue(output, object);
+        }
     }
 }
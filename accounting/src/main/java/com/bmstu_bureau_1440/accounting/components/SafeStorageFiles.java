@@ -0,0 +1,245 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.stereotype.Component;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
+
+import lombok.NonNull;
+
+/**
+ * Crash-safe writing and verified reading of {@link StorageSerializer} outputs.
+ * <p>
+ * An export is first written into a temporary directory of its own inside the target directory,
+ * so that concurrent exports never share one; every file is fsynced and its CRC32C is recorded in
+ * a {@code <format>.checksums} manifest ({@code <format>.gz.checksums} etc. for compressed exports,
+ * which are kept independently of the uncompressed ones). The complete directory is renamed to
+ * {@code <format>.export-<id>}, and the {@code <format>.current} pointer file naming it is
+ * atomically replaced; only then are the previous exports of the format deleted. A crash at any
+ * point therefore leaves the pointer naming either the previous export or the new one, both
+ * complete, and a file damaged later is detected on import by the checksum mismatch instead of
+ * being read as truncated data.
+ */
+@Component
+public class SafeStorageFiles {
+
+    private static final String MANIFEST_SUFFIX = ".checksums";
+    private static final String POINTER_SUFFIX = ".current";
+    private static final String EXPORT_SUFFIX = ".export-";
+    private static final String TEMPORARY_SUFFIX = ".tmp-";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private record Entry(long checksum, long size) {
+    }
+
+    public void export(@NonNull StorageSerializer serializer, @NonNull Storage storage, @NonNull Path directory)
+            throws Exception {
+        export(serializer, storage, Compression.NONE, directory);
+    }
+
+    public void export(@NonNull StorageSerializer serializer, @NonNull Storage storage,
+            @NonNull Compression compression, @NonNull Path directory) throws Exception {
+        export(serializer, storage, compression, rows -> {
+        }, directory);
+    }
+
+    /**
+     * @param rowsWritten see {@link StorageSerializer#serialize(Storage, Compression, LongConsumer, Path)}
+     */
+    public void export(@NonNull StorageSerializer serializer, @NonNull Storage storage,
+            @NonNull Compression compression, @NonNull LongConsumer rowsWritten, @NonNull Path directory)
+            throws Exception {
+        final Path absoluteDirectory = directory.toAbsolutePath();
+        final String format = format(serializer, compression);
+        final boolean isNewDirectory = !Files.isDirectory(absoluteDirectory);
+        final Path temporaryDirectory = FileAccess.createTempDirectory(absoluteDirectory,
+                format + TEMPORARY_SUFFIX);
+        if (isNewDirectory) {
+            // the entry of a new directory is only durable once its parent is synced
+            syncDirectory(absoluteDirectory.getParent());
+        }
+
+        try {
+            serializer.serialize(storage, compression, rowsWritten, temporaryDirectory);
+
+            final Map<String, Entry> entries = new LinkedHashMap<>();
+            for (Path file : listFiles(temporaryDirectory)) {
+                entries.put(file.getFileName().toString(), syncAndChecksum(file));
+            }
+
+            final Path manifest = temporaryDirectory.resolve(format + MANIFEST_SUFFIX);
+            Files.write(manifest, formatManifest(entries), StandardCharsets.UTF_8);
+            syncAndChecksum(manifest);
+            syncDirectory(temporaryDirectory);
+
+            publish(absoluteDirectory, format, temporaryDirectory);
+        } finally {
+            deleteRecursively(temporaryDirectory);
+        }
+    }
+
+    /**
+     * Makes the complete export in {@code temporaryDirectory} the current one with a single atomic
+     * rename of the pointer file, then deletes the exports it replaces. Synchronized, so that the
+     * exports deleted by one call are never the one another call is about to point to.
+     */
+    private synchronized void publish(Path directory, String format, Path temporaryDirectory) throws IOException {
+        final String temporaryName = temporaryDirectory.getFileName().toString();
+        final String exportName = format + EXPORT_SUFFIX
+                + temporaryName.substring(format.length() + TEMPORARY_SUFFIX.length());
+        Files.move(temporaryDirectory, directory.resolve(exportName), StandardCopyOption.ATOMIC_MOVE);
+
+        final Path pointer = directory.resolve(format + POINTER_SUFFIX);
+        final Path temporaryPointer = directory.resolve(format + POINTER_SUFFIX + TEMPORARY_SUFFIX + exportName);
+        Files.writeString(temporaryPointer, exportName, StandardCharsets.UTF_8);
+        syncAndChecksum(temporaryPointer);
+        Files.move(temporaryPointer, pointer, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path previousExport : files.toList()) {
+                final String filename = previousExport.getFileName().toString();
+                if (filename.startsWith(format + EXPORT_SUFFIX) && !filename.equals(exportName)) {
+                    deleteRecursively(previousExport);
+                }
+            }
+        }
+        // files of this format exported in place before there were pointers
+        final Path legacyManifest = directory.resolve(format + MANIFEST_SUFFIX);
+        for (String filename : readManifest(legacyManifest).keySet()) {
+            Files.deleteIfExists(directory.resolve(filename));
+        }
+        Files.deleteIfExists(legacyManifest);
+    }
+
+    /**
+     * Verifies the files of the current export in {@code directory} against their manifest and
+     * deserializes them. Exports made before pointers existed are read from {@code directory}
+     * itself, and those made before manifests existed are read without verification.
+     *
+     * @throws IllegalStateException if a file is missing or does not match its checksum
+     */
+    public Storage restore(@NonNull StorageSerializer serializer, @NonNull Path directory) throws Exception {
+        return restore(serializer, Compression.NONE, directory);
+    }
+
+    public Storage restore(@NonNull StorageSerializer serializer, @NonNull Compression compression,
+            @NonNull Path directory) throws Exception {
+        final String format = format(serializer, compression);
+        final Path pointer = directory.resolve(format + POINTER_SUFFIX);
+        final Path exportDirectory = Files.exists(pointer)
+                ? directory.resolve(Files.readString(pointer, StandardCharsets.UTF_8))
+                : directory;
+
+        for (Map.Entry<String, Entry> entry : readManifest(exportDirectory.resolve(format + MANIFEST_SUFFIX))
+                .entrySet()) {
+            final Path file = exportDirectory.resolve(entry.getKey());
+            if (!Files.exists(file)) {
+                throw new IllegalStateException("File listed in the manifest doesn't exist: " + file);
+            }
+            if (!checksum(file).equals(entry.getValue())) {
+                throw new IllegalStateException("Checksum mismatch, the file is incomplete or corrupted: " + file);
+            }
+        }
+
+        return serializer.deserialize(compression, exportDirectory);
+    }
+
+    private static String format(StorageSerializer serializer, Compression compression) {
+        return serializer.getFileType().name().toLowerCase() + compression.getExtension();
+    }
+
+    private static Entry syncAndChecksum(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.force(true);
+            return checksum(channel);
+        }
+    }
+
+    private static Entry checksum(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return checksum(channel);
+        }
+    }
+
+    private static Entry checksum(FileChannel channel) throws IOException {
+        final CRC32C crc = new CRC32C();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long size = 0;
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            size += buffer.remaining();
+            crc.update(buffer);
+            buffer.clear();
+        }
+        return new Entry(crc.getValue(), size);
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform allows opening a directory; the renames are still atomic there
+        }
+    }
+
+    private static List<String> formatManifest(Map<String, Entry> entries) {
+        final List<String> lines = new ArrayList<>();
+        entries.forEach((filename, entry) -> lines.add(
+                "%08x %d %s".formatted(entry.checksum(), entry.size(), filename)));
+        return lines;
+    }
+
+    private static Map<String, Entry> readManifest(Path manifest) throws IOException {
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        if (!Files.exists(manifest)) {
+            return entries;
+        }
+
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            final String[] parts = line.split(" ", 3);
+            if (parts.length != 3) {
+                throw new IllegalStateException("Malformed manifest line in " + manifest + ": " + line);
+            }
+            entries.put(parts[2], new Entry(Long.parseLong(parts[0], 16), Long.parseLong(parts[1])));
+        }
+        return entries;
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,314 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+import com.bmstu_bureau_1440.accounting.repositories.ChangeLogRepository;
+import com.bmstu_bureau_1440.accounting.repositories.FileStorageRepository;
+import com.bmstu_bureau_1440.accounting.services.AccountsService;
+import com.bmstu_bureau_1440.accounting.services.CategoriesService;
+import com.bmstu_bureau_1440.accounting.services.OperationsService;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Executes line-based accounting commands against the services, without the TUI.
+ * <p>
+ * One command per line, arguments separated by whitespace, arguments with spaces in double
+ * quotes; empty lines and lines starting with {@code #} are skipped:
+ *
+ * <pre>
+ * account add "My account" 1000.00
+ * category add Salary DEPOSIT
+ * operation add "My account" Salary 250 "March salary"
+ * account rename "My account" Main
+ * export JSON GZIP
+ * </pre>
+ *
+ * Accounts and categories are referred to by id or by name (the first one with that name).
+ * Lines are executed in batches of {@value #BATCH_SIZE} with the journal flushed once per batch;
+ * a failing line is reported with its number and the script goes on. Consecutive
+ * {@code operation add} lines (e.g. a bank statement) are added by
+ * {@link OperationsService#addOperations} at once; if any of them fails, they are added one by one
+ * instead, so that only the failing lines are left out.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScriptRunner {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final Storage storage;
+
+    private final AccountsService accountsService;
+
+    private final CategoriesService categoriesService;
+
+    private final OperationsService operationsService;
+
+    private final FileStorageRepository repository;
+
+    private final ChangeLogRepository changeLogRepository;
+
+    private final Map<String, String> accountIdsByName = new HashMap<>();
+
+    private final Map<String, String> categoryIdsByName = new HashMap<>();
+
+    private long namesVersion = -1;
+
+    public record Summary(long executed, long failed) {
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record PendingOperation(Line line, OperationsService.NewOperation operation) {
+    }
+
+    public Summary run(@NonNull BufferedReader reader, @NonNull PrintStream errors) throws IOException {
+        final List<Line> batch = new ArrayList<>(BATCH_SIZE);
+        final long[] counters = new long[2]; // executed, failed
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            batch.add(new Line(++lineNumber, line));
+            if (batch.size() == BATCH_SIZE) {
+                changeLogRepository.inBatch(() -> execute(batch, errors, counters));
+                batch.clear();
+            }
+        }
+        changeLogRepository.inBatch(() -> execute(batch, errors, counters));
+
+        return new Summary(counters[0], counters[1]);
+    }
+
+    private void execute(List<Line> batch, PrintStream errors, long[] counters) {
+        final List<PendingOperation> operations = new ArrayList<>();
+        for (Line line : batch) {
+            try {
+                final List<String> arguments = tokenize(line.text());
+                if (arguments.isEmpty()) {
+                    continue;
+                }
+                if (isOperationAdd(arguments)) {
+                    operations.add(new PendingOperation(line, newOperation(arguments)));
+                    continue;
+                }
+
+                addOperations(operations, errors, counters);
+                execute(arguments);
+                counters[0]++;
+            } catch (RuntimeException e) {
+                // the operations of the previous lines are added first, so that errors stay in line order
+                addOperations(operations, errors, counters);
+                fail(line, e, errors, counters);
+            }
+        }
+        addOperations(operations, errors, counters);
+    }
+
+    private void addOperations(List<PendingOperation> operations, PrintStream errors, long[] counters) {
+        final List<PendingOperation> pendingOperations = List.copyOf(operations);
+        operations.clear();
+
+        if (pendingOperations.size() > 1) {
+            try {
+                operationsService.addOperations(pendingOperations.stream().map(PendingOperation::operation));
+                counters[0] += pendingOperations.size();
+                return;
+            } catch (RuntimeException e) {
+                // nothing was added; one by one, every failing line is reported and the others are added
+            }
+        }
+
+        for (PendingOperation pending : pendingOperations) {
+            try {
+                final OperationsService.NewOperation operation = pending.operation();
+                operationsService.addNewOperation(operation.accountId(), operation.categoryId(), operation.amount(),
+                        operation.description());
+                counters[0]++;
+            } catch (RuntimeException e) {
+                fail(pending.line(), e, errors, counters);
+            }
+        }
+    }
+
+    private static void fail(Line line, RuntimeException e, PrintStream errors, long[] counters) {
+        errors.println("Line " + line.number() + ": " + e.getMessage());
+        counters[1]++;
+    }
+
+    private static boolean isOperationAdd(List<String> arguments) {
+        return arguments.size() > 1 && arguments.get(0).equals("operation") && arguments.get(1).equals("add");
+    }
+
+    private OperationsService.NewOperation newOperation(List<String> arguments) {
+        return new OperationsService.NewOperation(
+                resolveAccountId(argument(arguments, 2)),
+                resolveCategoryId(argument(arguments, 3)),
+                new BigDecimal(argument(arguments, 4)),
+                null,
+                arguments.size() > 5 ? arguments.get(5) : "");
+    }
+
+    private void execute(List<String> arguments) {
+        final String command = arguments.get(0) + (arguments.size() > 1 ? " " + arguments.get(1) : "");
+        switch (command) {
+            case "account add" -> {
+                final String name = argument(arguments, 2);
+                final boolean namesInSync = namesVersion == storage.getMembershipVersion();
+                final BankAccount account = accountsService.addNewBankAccount(name,
+                        arguments.size() > 3 ? new BigDecimal(arguments.get(3)) : BigDecimal.ZERO);
+                if (namesInSync) {
+                    accountIdsByName.putIfAbsent(name, account.getId());
+                    namesVersion = storage.getMembershipVersion();
+                }
+            }
+            case "account rename" -> {
+                accountsService.renameAccount(
+                        accountsService.getAccountById(resolveAccountId(argument(arguments, 2))),
+                        argument(arguments, 3));
+                namesVersion = -1;
+            }
+            case "account delete" -> accountsService.deleteAccount(
+                    accountsService.getAccountById(resolveAccountId(argument(arguments, 2))));
+            case "category add" -> {
+                final String name = argument(arguments, 2);
+                final boolean namesInSync = namesVersion == storage.getMembershipVersion();
+                final Category category = categoriesService.addNewCategory(name,
+                        OperationType.valueOf(argument(arguments, 3).toUpperCase()));
+                if (namesInSync) {
+                    categoryIdsByName.putIfAbsent(name, category.getId());
+                    namesVersion = storage.getMembershipVersion();
+                }
+            }
+            case "category rename" -> {
+                categoriesService.renameCategory(
+                        categoriesService.getCategoryById(resolveCategoryId(argument(arguments, 2))),
+                        argument(arguments, 3));
+                namesVersion = -1;
+            }
+            case "category delete" -> categoriesService.deleteCategory(
+                    categoriesService.getCategoryById(resolveCategoryId(argument(arguments, 2))));
+            case "operation delete" -> operationsService.deleteOperation(
+                    storage.findOperationById(argument(arguments, 2))
+                            .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + arguments.get(2))));
+            default -> {
+                switch (arguments.get(0)) {
+                    // the serializers read the lists from several threads, so they get a copy
+                    case "export" -> repository.exportToFile(fileType(arguments), compression(arguments),
+                            storage.snapshot());
+                    case "import" -> repository.importFromFile(fileType(arguments), compression(arguments));
+                    default -> throw new IllegalArgumentException("Unknown command: " + command);
+                }
+            }
+        }
+    }
+
+    private String resolveAccountId(String reference) {
+        if (storage.findAccountById(reference).isPresent()) {
+            return reference;
+        }
+
+        refreshNames();
+        final String id = accountIdsByName.get(reference);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown account: " + reference);
+        }
+        return id;
+    }
+
+    private String resolveCategoryId(String reference) {
+        if (storage.findCategoryById(reference).isPresent()) {
+            return reference;
+        }
+
+        refreshNames();
+        final String id = categoryIdsByName.get(reference);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown category: " + reference);
+        }
+        return id;
+    }
+
+    // names are indexed again only after accounts or categories were added or removed behind our back
+    private void refreshNames() {
+        if (namesVersion == storage.getMembershipVersion()) {
+            return;
+        }
+
+        accountIdsByName.clear();
+        categoryIdsByName.clear();
+        storage.getAccounts().forEach(account -> accountIdsByName.putIfAbsent(account.getName(), account.getId()));
+        storage.getCategories()
+                .forEach(category -> categoryIdsByName.putIfAbsent(category.getName(), category.getId()));
+        namesVersion = storage.getMembershipVersion();
+    }
+
+    private static FileType fileType(List<String> arguments) {
+        return FileType.valueOf(argument(arguments, 1).toUpperCase());
+    }
+
+    private static Compression compression(List<String> arguments) {
+        return arguments.size() > 2 ? Compression.valueOf(arguments.get(2).toUpperCase()) : Compression.NONE;
+    }
+
+    private static String argument(List<String> arguments, int index) {
+        if (index >= arguments.size()) {
+            throw new IllegalArgumentException("Missing argument #" + index + " of '" + arguments.get(0) + "'");
+        }
+        return arguments.get(index);
+    }
+
+    static List<String> tokenize(String line) {
+        final List<String> tokens = new ArrayList<>();
+        final String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return tokens;
+        }
+
+        final StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            final char c = trimmed.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+}
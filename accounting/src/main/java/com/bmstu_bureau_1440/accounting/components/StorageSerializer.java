@@ -1,9 +1,11 @@
 package com.bmstu_bureau_1440.accounting.components;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.Compression;
 import com.bmstu_bureau_1440.accounting.models.FileType;
 
 import java.nio.file.Path;
+import java.util.function.LongConsumer;
 
 public interface StorageSerializer {
     FileType getFileType();
@@ -11,4 +13,34 @@ public interface StorageSerializer {
     Storage deserialize(Path path) throws Exception;
 
     void serialize(Storage object, Path path) throws Exception;
+
+    /**
+     * Reads files written by {@link #serialize(Storage, Compression, Path)} with the same
+     * compression. Formats that don't support compression only accept {@link Compression#NONE}.
+     */
+    default Storage deserialize(Compression compression, Path path) throws Exception {
+        if (compression != Compression.NONE) {
+            throw new UnsupportedOperationException(getFileType() + " files cannot be compressed");
+        }
+        return deserialize(path);
+    }
+
+    default void serialize(Storage object, Compression compression, Path path) throws Exception {
+        if (compression != Compression.NONE) {
+            throw new UnsupportedOperationException(getFileType() + " files cannot be compressed");
+        }
+        serialize(object, path);
+    }
+
+    /**
+     * Same as {@link #serialize(Storage, Compression, Path)}, passing {@code rowsWritten} the number
+     * of entities in every file once it is written, possibly from several threads at once. Formats
+     * written in one piece report all of them at the end.
+     */
+    default void serialize(Storage object, Compression compression, LongConsumer rowsWritten, Path path)
+            throws Exception {
+        serialize(object, compression, path);
+        rowsWritten.accept((long) object.getAccounts().size() + object.getCategories().size()
+                + object.getOperations().size());
+    }
 }
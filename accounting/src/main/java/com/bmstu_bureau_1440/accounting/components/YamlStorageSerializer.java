@@ -1,20 +1,25 @@
 package com.bmstu_bureau_1440.accounting.components;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.Compression;
 import com.bmstu_bureau_1440.accounting.models.FileType;
 import com.bmstu_bureau_1440.accounting.utils.CheckIfReadable;
 import com.bmstu_bureau_1440.accounting.utils.CheckIfWritable;
+import com.bmstu_bureau_1440.accounting.utils.FileAccess;
+import org.snakeyaml.engine.v2.api.LoadSettings;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.dataformat.yaml.YAMLFactory;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 @Component
 public class YamlStorageSerializer implements StorageSerializer {
 
-    ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+    // snakeyaml refuses documents longer than 3M code points by default, which a large ledger easily exceeds
+    ObjectMapper mapper = new ObjectMapper(YAMLFactory.builder()
+            .loadSettings(LoadSettings.builder().setCodePointLimit(Integer.MAX_VALUE).build())
+            .build());
 
     private static final String YAML_FILENAME = "accounting.yaml";
 
@@ -26,14 +31,30 @@ public class YamlStorageSerializer implements StorageSerializer {
     @Override
     @CheckIfReadable(filenames = {YAML_FILENAME})
     public Storage deserialize(Path path) throws Exception {
-        return mapper.readValue(path.resolve(YAML_FILENAME), Storage.class);
+        return deserialize(Compression.NONE, path);
+    }
+
+    @Override
+    @CheckIfReadable(filenames = {YAML_FILENAME})
+    public Storage deserialize(Compression compression, Path path) throws Exception {
+        try (var input = CompressionStreams.newInputStream(
+                CompressionStreams.resolve(path, YAML_FILENAME, compression), compression)) {
+            return mapper.readValue(input, Storage.class);
+        }
     }
 
     @Override
     @CheckIfWritable
     public void serialize(Storage object, Path path) throws Exception {
-        mapper.writeValue(
-                Files.createDirectories(path).resolve(YAML_FILENAME), object
-        );
+        serialize(object, Compression.NONE, path);
+    }
+
+    @Override
+    @CheckIfWritable
+    public void serialize(Storage object, Compression compression, Path path) throws Exception {
+        try (var output = CompressionStreams.newOutputStream(
+                CompressionStreams.resolve(FileAccess.createDirectories(path), YAML_FILENAME, compression), compression)) {
+            mapper.writeValue(output, object);
+        }
     }
 }
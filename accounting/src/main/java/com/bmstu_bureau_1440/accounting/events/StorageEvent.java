@@ -0,0 +1,49 @@
+package com.bmstu_bureau_1440.accounting.events;
+
+import java.math.BigDecimal;
+
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+/**
+ * Application events published by the services after every mutation of
+ * {@link com.bmstu_bureau_1440.accounting.Storage}. Components that keep derived
+ * state (aggregates, indexes, caches) listen to them instead of rescanning the storage.
+ */
+public sealed interface StorageEvent {
+
+    record OperationAdded(Operation operation) implements StorageEvent {
+    }
+
+    record OperationDeleted(Operation operation) implements StorageEvent {
+    }
+
+    record OperationUpdated(Operation operation) implements StorageEvent {
+    }
+
+    record AccountAdded(BankAccount account) implements StorageEvent {
+    }
+
+    record AccountDeleted(BankAccount account) implements StorageEvent {
+    }
+
+    record AccountUpdated(BankAccount account, BigDecimal previousBalance) implements StorageEvent {
+    }
+
+    record CategoryAdded(Category category) implements StorageEvent {
+    }
+
+    record CategoryDeleted(Category category) implements StorageEvent {
+    }
+
+    record CategoryUpdated(Category category) implements StorageEvent {
+    }
+
+    /**
+     * The whole content of the storage has been replaced (e.g. after an import).
+     */
+    record StorageReloaded() implements StorageEvent {
+    }
+
+}
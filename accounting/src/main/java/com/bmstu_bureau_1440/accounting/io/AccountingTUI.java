@@ -16,10 +16,12 @@ import com.bmstu_bureau_1440.accounting.io.app.view.TabsWidget;
 import com.bmstu_bureau_1440.accounting.io.categories.controller.CategoriesTuiController;
 import com.bmstu_bureau_1440.accounting.io.categories.view.CategoriesTableWidget;
 import com.bmstu_bureau_1440.accounting.io.categories.view.CategoryDetailsWidget;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfilerWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
 import com.bmstu_bureau_1440.accounting.io.operations.view.AccountsSelectorFilterWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.view.CategoriesSelectorFilterWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.view.OperationsDetailsWidget;
+import com.bmstu_bureau_1440.accounting.io.operations.view.OperationsSearchWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.view.OperationsTableWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.view.TotalSummaryWidget;
 
@@ -44,9 +46,11 @@ public class AccountingTUI extends ToolkitApp {
     private final CategoryDetailsWidget categoryDetailsWidget;
     private final AccountsSelectorFilterWidget accountsFilter;
     private final CategoriesSelectorFilterWidget categoriesFilter;
+    private final OperationsSearchWidget operationsSearch;
     private final OperationsTableWidget operationsTable;
     private final OperationsDetailsWidget operationsDetailsWidget;
     private final TotalSummaryWidget totalSummaryWidget;
+    private final RenderProfilerWidget renderProfilerWidget;
 
     @Override
     protected void onStart() {
@@ -57,11 +61,14 @@ public class AccountingTUI extends ToolkitApp {
 
     @Override
     protected Element render() {
-        return panel(
-                "Bank application",
-                renderMainTabsNavigation(),
-                renderContent(),
-                text("Press 'q' to quit").dim())
+        controller.frameStarted();
+        controller.autosaveIfDue();
+
+        final Element[] children = controller.isProfilerVisible()
+                ? new Element[] { renderMainTabsNavigation(), renderContent(), renderProfiler(), renderFooter() }
+                : new Element[] { renderMainTabsNavigation(), renderContent(), renderFooter() };
+
+        return panel("Bank application", children)
                 .borderColor(Color.YELLOW)
                 .rounded();
     }
@@ -77,7 +84,8 @@ public class AccountingTUI extends ToolkitApp {
             }
             case 1 -> {
                 return column(
-                        row(renderAccountsFilter(), renderCategoriesFilter(), renderTotalSummary()).percent(20),
+                        row(renderAccountsFilter(), renderCategoriesFilter(), renderOperationsSearch(),
+                                renderTotalSummary()).percent(20),
                         renderOperations(),
                         renderOperationDetails()).fill();
             }
@@ -92,6 +100,18 @@ public class AccountingTUI extends ToolkitApp {
         }
     }
 
+    private Element renderFooter() {
+        final String exportStatus = controller.getExportStatus();
+        final String profileStatus = controller.getProfileStatus();
+        return text("Press 'q' to quit, 'e' on the tabs bar to export, 'p' to profile"
+                + (exportStatus.isEmpty() ? "" : " | " + exportStatus)
+                + (profileStatus.isEmpty() ? "" : " | " + profileStatus)).dim();
+    }
+
+    private Element renderProfiler() {
+        return panel("Profiler", renderProfilerWidget);
+    }
+
     private Element renderMainTabsNavigation() {
         return mainNavigationTabs;
     }
@@ -137,7 +157,7 @@ public class AccountingTUI extends ToolkitApp {
                 .id("accounts-filter")
                 .focusable()
                 .focusedBorderColor(Color.MAGENTA)
-                .percent(100 / 3);
+                .percent(100 / 4);
     }
 
     private Element renderCategoriesFilter() {
@@ -145,10 +165,18 @@ public class AccountingTUI extends ToolkitApp {
                 .id("categories-filter")
                 .focusable()
                 .focusedBorderColor(Color.MAGENTA)
-                .percent(100 / 3);
+                .percent(100 / 4);
+    }
+
+    private Element renderOperationsSearch() {
+        return panel("Search descriptions:", operationsSearch)
+                .id("operations-search")
+                .focusable()
+                .focusedBorderColor(Color.MAGENTA)
+                .percent(100 / 4);
     }
 
     private Element renderTotalSummary() {
-        return panel("Summary", totalSummaryWidget).percent(100 / 3);
+        return panel("Summary", totalSummaryWidget).percent(100 / 4);
     }
 }
\ No newline at end of file
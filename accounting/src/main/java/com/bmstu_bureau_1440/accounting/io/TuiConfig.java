@@ -0,0 +1,18 @@
+package com.bmstu_bureau_1440.accounting.io;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import com.bmstu_bureau_1440.accounting.AppConfig;
+import com.bmstu_bureau_1440.accounting.Application;
+
+/**
+ * Adds the TUI (this package) and the interactive {@link Application} on top of the
+ * {@link AppConfig} core, which the headless mode uses alone.
+ */
+@Configuration
+@Import({ AppConfig.class, Application.class })
+@ComponentScan(basePackageClasses = TuiConfig.class)
+public class TuiConfig {
+}
@@ -43,13 +43,27 @@ public class AccountsTuiController {
             .textField(InputFields.ACCOUNT_BALANCE.getFieldName(), BigDecimal.ZERO.toPlainString())
             .build();
 
+    private long stateVersion;
+
     // Queries
+    public long getDataVersion() {
+        return storage.getVersion();
+    }
+
+    /**
+     * Changes with every command that may change the selection, so that widgets know when to rebuild.
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
     public List<BankAccount> getAccounts() {
         return storage.getAccounts();
     }
 
     // Commands
     public void selectPreviousAccount() {
+        stateVersion++;
         accountsTableState.selectPrevious();
         selectedBankAccount = TuiUtils.getSelectedObject(accountsTableState, getAccounts());
         updateEditAccountForm();
@@ -57,6 +71,7 @@ public class AccountsTuiController {
     }
 
     public void selectNextAccount() {
+        stateVersion++;
         accountsTableState.selectNext(storage.getAccounts().size());
         selectedBankAccount = TuiUtils.getSelectedObject(accountsTableState, getAccounts());
         updateEditAccountForm();
@@ -64,12 +79,14 @@ public class AccountsTuiController {
     }
 
     public void clearAccountSelection() {
+        stateVersion++;
         accountsTableState.clearSelection();
         selectedBankAccount = null;
         updateEditAccountForm();
     }
 
     public void createOrUpdateAccount() {
+        stateVersion++;
         boolean isNameValid = getForm().validationResult(InputFields.ACCOUNT_NAME.getFieldName()).isValid();
         boolean isBalanceValid = getForm().validationResult(InputFields.ACCOUNT_BALANCE.getFieldName()).isValid();
 
@@ -81,7 +98,7 @@ public class AccountsTuiController {
         BigDecimal balance = new BigDecimal(getForm().textValue(InputFields.ACCOUNT_BALANCE.getFieldName()));
 
         if (ObjectUtils.isNotEmpty(selectedBankAccount)) {
-            selectedBankAccount.setName(name);
+            accountsService.renameAccount(selectedBankAccount, name);
         } else {
             accountsService.addNewBankAccount(name, balance);
             accountsTableState.selectLast(storage.getAccounts().size());
@@ -96,6 +113,7 @@ public class AccountsTuiController {
     }
 
     public void removeAccount() {
+        stateVersion++;
         accountsService.deleteAccount(selectedBankAccount);
 
         setRemoveAccountDialogVisible(false);
@@ -7,6 +7,8 @@ import java.util.List;
 import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.accounts.controller.AccountsTuiController;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils;
 import com.bmstu_bureau_1440.accounting.io.shared.InputFields;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
@@ -22,15 +24,12 @@ import dev.tamboui.text.Line;
 import dev.tamboui.text.Span;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.toolkit.elements.FormFieldElement;
 import dev.tamboui.widgets.form.Validators;
 import dev.tamboui.widgets.paragraph.Paragraph;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
-public class AccountDetailsWidget extends StyledElement<AccountDetailsWidget> {
+public class AccountDetailsWidget extends ProfiledElement<AccountDetailsWidget> {
 
     private final AccountsTuiController controller;
 
@@ -46,8 +45,13 @@ public class AccountDetailsWidget extends StyledElement<AccountDetailsWidget> {
             Constraint.fill() // Field value | input
     ).flex(Flex.CENTER);
 
+    public AccountDetailsWidget(AccountsTuiController controller, RenderProfiler profiler) {
+        super(profiler);
+        this.controller = controller;
+    }
+
     @Override
-    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
         final BankAccount selectedBankAccount = controller.getSelectedBankAccount();
 
         List<Rect> areas = layout.split(area);
@@ -139,7 +143,7 @@ public class AccountDetailsWidget extends StyledElement<AccountDetailsWidget> {
     }
 
     @Override
-    public Size preferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
         return TuiUtils.computePreferredSize(layout.constraints().toArray(new Constraint[0]), availableHeight);
     }
 }
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.accounts.controller.AccountsTuiController;
 import com.bmstu_bureau_1440.accounting.io.common.Column;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.AbstractTableWidget;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.ConfirmationDialogWidget;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
@@ -22,8 +23,8 @@ import dev.tamboui.widgets.table.TableState;
 @Component
 public class AccountsTableWidget extends AbstractTableWidget<BankAccount, AccountsTuiController> {
 
-    public AccountsTableWidget(AccountsTuiController controller) {
-        super(controller);
+    public AccountsTableWidget(AccountsTuiController controller, RenderProfiler profiler) {
+        super(controller, profiler);
     }
 
     @Override
@@ -45,8 +46,18 @@ public class AccountsTableWidget extends AbstractTableWidget<BankAccount, Accoun
     }
 
     @Override
-    protected void renderContent(Frame frame, Rect rect, RenderContext renderContext) {
-        super.renderContent(frame, rect, renderContext);
+    protected Function<AccountsTuiController, Long> getVersionProvider() {
+        return AccountsTuiController::getDataVersion;
+    }
+
+    @Override
+    protected Function<AccountsTuiController, Long> getStateVersionProvider() {
+        return AccountsTuiController::getStateVersion;
+    }
+
+    @Override
+    protected void doRenderContent(Frame frame, Rect rect, RenderContext renderContext) {
+        super.doRenderContent(frame, rect, renderContext);
 
         if (controller.getRemoveAccountDialogVisible()) {
             renderContext.renderChild(
@@ -58,7 +69,7 @@ public class AccountsTableWidget extends AbstractTableWidget<BankAccount, Accoun
     }
 
     @Override
-    public EventResult handleKeyEvent(KeyEvent event, boolean focused) {
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
         if (!focused) {
             return EventResult.UNHANDLED;
         }
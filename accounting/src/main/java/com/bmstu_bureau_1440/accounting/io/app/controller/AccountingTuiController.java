@@ -1,5 +1,12 @@
 package com.bmstu_bureau_1440.accounting.io.app.controller;
 
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.services.ExportScheduler;
+
 import dev.tamboui.widgets.tabs.TabsState;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +16,51 @@ import org.springframework.stereotype.Controller;
 @RequiredArgsConstructor
 public class AccountingTuiController {
 
+    private final ExportScheduler exportScheduler;
+
+    private final RenderProfiler profiler;
+
     @Getter
     private final TabsState mainNavigationTabsState = new TabsState(0);
 
+    @Getter
+    private String profileStatus = "";
+
+    // Queries
+    public String getExportStatus() {
+        return exportScheduler.getStatuses().stream()
+                .map(ExportScheduler.Status::describe)
+                .collect(Collectors.joining(", "));
+    }
+
+    public boolean isProfilerVisible() {
+        return profiler.isEnabled();
+    }
+
+    // Commands
+    public void exportAll() {
+        exportScheduler.requestExport(FileType.values());
+    }
+
+    public void autosaveIfDue() {
+        exportScheduler.autosaveIfDue();
+    }
+
+    public void frameStarted() {
+        profiler.frameStarted();
+    }
+
+    public void toggleProfiler() {
+        profiler.toggle();
+        profileStatus = "";
+    }
+
+    public void dumpProfile() {
+        try {
+            profileStatus = "Profile saved to " + profiler.dump();
+        } catch (IOException e) {
+            profileStatus = "Profile dump failed: " + e.getMessage();
+        }
+    }
+
 }
@@ -3,6 +3,8 @@ package com.bmstu_bureau_1440.accounting.io.app.view;
 import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.app.controller.AccountingTuiController;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 
 import dev.tamboui.layout.Rect;
 import dev.tamboui.style.Color;
@@ -11,7 +13,6 @@ import dev.tamboui.terminal.Frame;
 import dev.tamboui.text.Span;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.toolkit.event.EventResult;
 import dev.tamboui.tui.event.KeyEvent;
 import dev.tamboui.widgets.block.Block;
@@ -20,11 +21,12 @@ import dev.tamboui.widgets.block.Borders;
 import dev.tamboui.widgets.tabs.Tabs;
 
 @Component
-public class TabsWidget extends StyledElement<TabsWidget> {
+public class TabsWidget extends ProfiledElement<TabsWidget> {
 
     private final AccountingTuiController controller;
 
-    public TabsWidget(AccountingTuiController controller) {
+    public TabsWidget(AccountingTuiController controller, RenderProfiler profiler) {
+        super(profiler);
         this.controller = controller;
     }
 
@@ -39,7 +41,7 @@ public class TabsWidget extends StyledElement<TabsWidget> {
     }
 
     @Override
-    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
         Tabs tabs = Tabs.builder()
                 .titles("Accounts", "Transactions", "Categories")
                 .style(Style.EMPTY.fg(Color.WHITE))
@@ -57,7 +59,7 @@ public class TabsWidget extends StyledElement<TabsWidget> {
     }
 
     @Override
-    public EventResult handleKeyEvent(KeyEvent event, boolean focused) {
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
         if (!focused) {
             return EventResult.UNHANDLED;
         }
@@ -68,13 +70,22 @@ public class TabsWidget extends StyledElement<TabsWidget> {
         } else if (event.isLeft()) {
             controller.getMainNavigationTabsState().selectPrevious(3);
             return EventResult.HANDLED;
+        } else if (event.isChar('e')) {
+            controller.exportAll();
+            return EventResult.HANDLED;
+        } else if (event.isChar('p')) {
+            controller.toggleProfiler();
+            return EventResult.HANDLED;
+        } else if (event.isChar('P')) {
+            controller.dumpProfile();
+            return EventResult.HANDLED;
         } else {
             return EventResult.UNHANDLED;
         }
     }
 
     @Override
-    public Size preferredSize(int i, int i1, RenderContext renderContext) {
+    protected Size doPreferredSize(int i, int i1, RenderContext renderContext) {
         return Size.heightOnly(3);
     }
 }
@@ -46,13 +46,27 @@ public class CategoriesTuiController {
                     Stream.of(OperationType.values()).map(Enum::toString).toList())
             .build();
 
+    private long stateVersion;
+
     // Queries
+    public long getDataVersion() {
+        return storage.getVersion();
+    }
+
+    /**
+     * Changes with every command that may change the selection, so that widgets know when to rebuild.
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
     public List<Category> getCategories() {
         return storage.getCategories();
     }
 
     // Commands
     public void selectPreviousCategory() {
+        stateVersion++;
         categoriesTableState.selectPrevious();
         selectedCategory = TuiUtils.getSelectedObject(categoriesTableState, getCategories());
         updateEditCategoryForm();
@@ -60,6 +74,7 @@ public class CategoriesTuiController {
     }
 
     public void selectNextCategory() {
+        stateVersion++;
         categoriesTableState.selectNext(getCategories().size());
         selectedCategory = TuiUtils.getSelectedObject(categoriesTableState, getCategories());
         updateEditCategoryForm();
@@ -67,12 +82,14 @@ public class CategoriesTuiController {
     }
 
     public void clearCategorySelection() {
+        stateVersion++;
         categoriesTableState.clearSelection();
         selectedCategory = null;
         updateEditCategoryForm();
     }
 
     public void createOrUpdateCategory() {
+        stateVersion++;
         boolean isNameValid = getForm().validationResult(InputFields.CATEGORY_NAME.getFieldName()).isValid();
 
         if (!isNameValid) {
@@ -83,7 +100,7 @@ public class CategoriesTuiController {
         OperationType type = OperationType.valueOf(getForm().selectValue(InputFields.CATEGORY_TYPE.getFieldName()));
 
         if (ObjectUtils.isNotEmpty(selectedCategory)) {
-            selectedCategory.setName(name);
+            categoriesService.renameCategory(selectedCategory, name);
         } else {
             categoriesService.addNewCategory(name, type);
             categoriesTableState.selectLast(getCategories().size());
@@ -98,6 +115,7 @@ public class CategoriesTuiController {
     }
 
     public void removeCategory() {
+        stateVersion++;
         categoriesService.deleteCategory(selectedCategory);
 
         setRemoveCategoryDialogVisible(false);
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.categories.controller.CategoriesTuiController;
 import com.bmstu_bureau_1440.accounting.io.common.Column;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.AbstractTableWidget;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.ConfirmationDialogWidget;
 import com.bmstu_bureau_1440.accounting.models.Category;
@@ -22,8 +23,8 @@ import dev.tamboui.widgets.table.TableState;
 @Component
 public class CategoriesTableWidget extends AbstractTableWidget<Category, CategoriesTuiController> {
 
-    public CategoriesTableWidget(CategoriesTuiController controller) {
-        super(controller);
+    public CategoriesTableWidget(CategoriesTuiController controller, RenderProfiler profiler) {
+        super(controller, profiler);
     }
 
     @Override
@@ -45,8 +46,18 @@ public class CategoriesTableWidget extends AbstractTableWidget<Category, Categor
     }
 
     @Override
-    protected void renderContent(Frame frame, Rect rect, RenderContext renderContext) {
-        super.renderContent(frame, rect, renderContext);
+    protected Function<CategoriesTuiController, Long> getVersionProvider() {
+        return CategoriesTuiController::getDataVersion;
+    }
+
+    @Override
+    protected Function<CategoriesTuiController, Long> getStateVersionProvider() {
+        return CategoriesTuiController::getStateVersion;
+    }
+
+    @Override
+    protected void doRenderContent(Frame frame, Rect rect, RenderContext renderContext) {
+        super.doRenderContent(frame, rect, renderContext);
 
         if (controller.getRemoveCategoryDialogVisible()) {
             renderContext.renderChild(
@@ -58,7 +69,7 @@ public class CategoriesTableWidget extends AbstractTableWidget<Category, Categor
     }
 
     @Override
-    public EventResult handleKeyEvent(KeyEvent event, boolean focused) {
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
         if (!focused) {
             return EventResult.UNHANDLED;
         }
@@ -7,6 +7,8 @@ import java.util.List;
 import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.categories.controller.CategoriesTuiController;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils;
 import com.bmstu_bureau_1440.accounting.io.shared.InputFields;
 import com.bmstu_bureau_1440.accounting.models.Category;
@@ -21,15 +23,12 @@ import dev.tamboui.text.CharWidth;
 import dev.tamboui.text.Span;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.toolkit.elements.FormFieldElement;
 import dev.tamboui.widgets.form.Validators;
 import dev.tamboui.widgets.paragraph.Paragraph;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
-public class CategoryDetailsWidget extends StyledElement<CategoryDetailsWidget> {
+public class CategoryDetailsWidget extends ProfiledElement<CategoryDetailsWidget> {
 
     private final CategoriesTuiController controller;
 
@@ -45,9 +44,13 @@ public class CategoryDetailsWidget extends StyledElement<CategoryDetailsWidget>
             Constraint.fill() // Field value | input
     ).flex(Flex.CENTER);
 
-    @Override
-    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+    public CategoryDetailsWidget(CategoriesTuiController controller, RenderProfiler profiler) {
+        super(profiler);
+        this.controller = controller;
+    }
 
+    @Override
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
         final Category selectedCategory = controller.getSelectedCategory();
 
         List<Rect> areas = layout.split(area);
@@ -121,11 +124,10 @@ public class CategoryDetailsWidget extends StyledElement<CategoryDetailsWidget>
         nameField.validateField();
 
         renderContext.renderChild(nameField, frame, nameFieldInnerAreas.get(1));
-
     }
 
     @Override
-    public Size preferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
         return TuiUtils.computePreferredSize(layout.constraints().toArray(new Constraint[0]), availableHeight);
     }
 }
@@ -0,0 +1,49 @@
+package com.bmstu_bureau_1440.accounting.io.common.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Times the calls widgets make into the TUI controllers, e.g. the data providers of the tables.
+ * Proxying the controllers costs every call even while profiling is off, so the aspect is only
+ * registered when the application is started with {@code -D}{@value RenderProfiler#ENABLED_PROPERTY}
+ * {@code =true}; toggled on later, the profiler times the widgets only.
+ */
+@Aspect
+@Component
+@Conditional(ControllerProfilingAspect.EnabledCondition.class)
+@RequiredArgsConstructor
+public class ControllerProfilingAspect {
+
+    static final class EnabledCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment().getProperty(RenderProfiler.ENABLED_PROPERTY, Boolean.class, false);
+        }
+
+    }
+
+    private final RenderProfiler profiler;
+
+    @Around("execution(public * com.bmstu_bureau_1440.accounting.io..controller.*.*(..))")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!profiler.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        try (var timer = profiler.time(joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName())) {
+            return joinPoint.proceed();
+        }
+    }
+
+}
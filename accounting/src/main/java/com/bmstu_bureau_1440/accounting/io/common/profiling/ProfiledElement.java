@@ -0,0 +1,53 @@
+package com.bmstu_bureau_1440.accounting.io.common.profiling;
+
+import dev.tamboui.layout.Rect;
+import dev.tamboui.terminal.Frame;
+import dev.tamboui.toolkit.element.RenderContext;
+import dev.tamboui.toolkit.element.Size;
+import dev.tamboui.toolkit.element.StyledElement;
+import dev.tamboui.toolkit.event.EventResult;
+import dev.tamboui.tui.event.KeyEvent;
+
+/**
+ * Element whose rendering, layout and key handling are timed by the {@link RenderProfiler}.
+ * Subclasses implement the {@code do*} methods, the methods of {@link StyledElement} only wrap
+ * them into a timer.
+ */
+public abstract class ProfiledElement<T extends ProfiledElement<T>> extends StyledElement<T> {
+
+    private final RenderProfiler profiler;
+
+    protected ProfiledElement(RenderProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected final void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+        try (var timer = profiler.time(this, RenderProfiler.Phase.RENDER)) {
+            doRenderContent(frame, area, renderContext);
+        }
+    }
+
+    @Override
+    public final Size preferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
+        try (var timer = profiler.time(this, RenderProfiler.Phase.LAYOUT)) {
+            return doPreferredSize(availableWidth, availableHeight, renderContext);
+        }
+    }
+
+    @Override
+    public final EventResult handleKeyEvent(KeyEvent event, boolean focused) {
+        try (var timer = profiler.time(this, RenderProfiler.Phase.EVENT)) {
+            return doHandleKeyEvent(event, focused);
+        }
+    }
+
+    protected abstract void doRenderContent(Frame frame, Rect area, RenderContext renderContext);
+
+    protected abstract Size doPreferredSize(int availableWidth, int availableHeight, RenderContext renderContext);
+
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
+        return super.handleKeyEvent(event, focused);
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.bmstu_bureau_1440.accounting.io.common.profiling;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+
+/**
+ * Collects timings of widget rendering, layout, key handling and controller calls.
+ * <p>
+ * Every measured section keeps its last {@value #WINDOW} samples in a ring buffer, so the
+ * percentiles shown in the overlay describe the recent frames only. While profiling is off
+ * {@link #time} returns a shared no-op timer and costs nothing but a field read.
+ * Start with {@code -D}{@value #ENABLED_PROPERTY}{@code =true} to profile from the first frame.
+ * <p>
+ * The time from the JVM start to the first frame is recorded whether profiling is on or not,
+ * to compare startup options such as the AOT initializers or a CDS archive.
+ */
+@Component
+public class RenderProfiler {
+
+    public static final String ENABLED_PROPERTY = "accounting.profiler";
+
+    private static final int WINDOW = 512;
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private static final Timer NOOP = () -> {
+    };
+
+    final Path profilePath = Paths.get("accounting", "profile");
+
+    public enum Phase {
+        RENDER, LAYOUT, EVENT, CALL
+    }
+
+    /**
+     * Ends the measured section when closed; meant for try-with-resources.
+     */
+    @FunctionalInterface
+    public interface Timer extends AutoCloseable {
+
+        @Override
+        void close();
+
+    }
+
+    public record Stats(String name, long count, long p50, long p99, long max, long total) {
+
+        public String describe() {
+            return "%-48s n=%-7d p50 %8s  p99 %8s  max %8s".formatted(name, count, formatNanos(p50),
+                    formatNanos(p99), formatNanos(max));
+        }
+
+    }
+
+    @Getter
+    private volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Milliseconds from the JVM start to the first frame, -1 before it.
+     */
+    @Getter
+    private volatile long timeToFirstFrame = -1;
+
+    private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+    private final long[] frames = new long[WINDOW];
+
+    private int framesCount;
+
+    // Queries
+    public Timer time(Object source, Phase phase) {
+        return enabled ? time(source.getClass().getSimpleName() + "." + phase.name().toLowerCase()) : NOOP;
+    }
+
+    public Timer time(String name) {
+        if (!enabled) {
+            return NOOP;
+        }
+
+        final long started = System.nanoTime();
+        return () -> record(name, System.nanoTime() - started);
+    }
+
+    public synchronized double getFramesPerSecond() {
+        if (framesCount < 2) {
+            return 0;
+        }
+
+        // frame rate over the frames of the last second
+        final long last = frames[(framesCount - 1) % WINDOW];
+        long first = last;
+        int intervals = 0;
+        for (int i = framesCount - 2; i >= Math.max(0, framesCount - WINDOW); i--) {
+            if (last - frames[i % WINDOW] > SECOND) {
+                break;
+            }
+            first = frames[i % WINDOW];
+            intervals++;
+        }
+        return last == first ? 0 : intervals * (double) SECOND / (last - first);
+    }
+
+    /**
+     * @return statistics of every measured section, the most expensive (by 99th percentile) first
+     */
+    public synchronized List<Stats> getStats() {
+        final List<Stats> stats = new ArrayList<>(samples.size());
+        samples.forEach((name, section) -> stats.add(section.toStats(name)));
+        stats.sort(Comparator.comparingLong(Stats::p99).reversed());
+        return stats;
+    }
+
+    // Commands
+    public synchronized void toggle() {
+        enabled = !enabled;
+        if (enabled) {
+            samples.clear();
+            framesCount = 0;
+        }
+    }
+
+    public synchronized void frameStarted() {
+        if (timeToFirstFrame < 0) {
+            timeToFirstFrame = ManagementFactory.getRuntimeMXBean().getUptime();
+        }
+        if (enabled) {
+            frames[framesCount++ % WINDOW] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Writes the current statistics into {@code accounting/profile/render-<timestamp>.txt}.
+     *
+     * @return the written file
+     */
+    public Path dump() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("FPS: %.1f".formatted(getFramesPerSecond()));
+        lines.add("First frame: %d ms after JVM start".formatted(timeToFirstFrame));
+        getStats().forEach(stats -> lines.add(stats.describe()));
+
+        final String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return Files.write(Files.createDirectories(profilePath).resolve("render-" + timestamp + ".txt"), lines,
+                StandardCharsets.UTF_8);
+    }
+
+    private synchronized void record(String name, long nanos) {
+        samples.computeIfAbsent(name, key -> new Samples()).add(nanos);
+    }
+
+    static String formatNanos(long nanos) {
+        return nanos >= 1_000_000 ? "%.1fms".formatted(nanos / 1e6) : "%dus".formatted(nanos / 1_000);
+    }
+
+    /**
+     * Ring buffer of the most recent durations of one section.
+     */
+    private static final class Samples {
+
+        private final long[] values = new long[WINDOW];
+
+        private long count;
+
+        private long total;
+
+        void add(long nanos) {
+            values[(int) (count++ % WINDOW)] = nanos;
+            total += nanos;
+        }
+
+        Stats toStats(String name) {
+            final long[] sorted = Arrays.copyOf(values, (int) Math.min(count, WINDOW));
+            Arrays.sort(sorted);
+            return new Stats(name, count, percentile(sorted, 50), percentile(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1], total);
+        }
+
+        private static long percentile(long[] sorted, int percent) {
+            return sorted.length == 0 ? 0 : sorted[(sorted.length - 1) * percent / 100];
+        }
+
+    }
+
+}
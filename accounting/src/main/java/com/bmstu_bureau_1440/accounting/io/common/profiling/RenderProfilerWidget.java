@@ -0,0 +1,55 @@
+package com.bmstu_bureau_1440.accounting.io.common.profiling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import dev.tamboui.layout.Rect;
+import dev.tamboui.style.Color;
+import dev.tamboui.style.Style;
+import dev.tamboui.terminal.Frame;
+import dev.tamboui.text.Line;
+import dev.tamboui.text.Span;
+import dev.tamboui.text.Text;
+import dev.tamboui.toolkit.element.RenderContext;
+import dev.tamboui.toolkit.element.Size;
+import dev.tamboui.toolkit.element.StyledElement;
+import dev.tamboui.widgets.paragraph.Paragraph;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Overlay with the frame rate, the startup time and the slowest measured sections of the last
+ * frames.
+ */
+@Component
+@RequiredArgsConstructor
+public class RenderProfilerWidget extends StyledElement<RenderProfilerWidget> {
+
+    private static final int SHOWN_SECTIONS = 8;
+
+    private final RenderProfiler profiler;
+
+    @Override
+    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+        final List<Line> lines = new ArrayList<>();
+        lines.add(Line.from(
+                new Span("FPS: ", Style.EMPTY.fg(Color.YELLOW).bold()),
+                Span.raw("%.1f".formatted(profiler.getFramesPerSecond())),
+                new Span("   First frame: ", Style.EMPTY.fg(Color.YELLOW).bold()),
+                Span.raw(profiler.getTimeToFirstFrame() + " ms"),
+                new Span("   'p' to hide, 'P' to dump into accounting/profile", Style.EMPTY.fg(Color.DARK_GRAY))));
+
+        profiler.getStats().stream()
+                .limit(Math.max(0, Math.min(SHOWN_SECTIONS, area.height() - 1)))
+                .forEach(stats -> lines.add(Line.from(Span.raw(stats.describe()))));
+
+        frame.renderWidget(Paragraph.from(Text.from(lines.toArray(Line[]::new))), area);
+    }
+
+    @Override
+    public Size preferredSize(int availableWidth, int availableHeight, RenderContext context) {
+        return Size.heightOnly(SHOWN_SECTIONS + 1);
+    }
+
+}
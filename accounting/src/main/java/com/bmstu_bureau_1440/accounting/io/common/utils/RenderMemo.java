@@ -0,0 +1,25 @@
+package com.bmstu_bureau_1440.accounting.io.common.utils;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last widget built by an element together with the inputs it was built from
+ * (data and state versions, size of the area), so that an unchanged element hands the
+ * frame the same widget instead of fetching and formatting its data again.
+ */
+public final class RenderMemo<W> {
+
+    private Object[] inputs;
+
+    private W widget;
+
+    public W get(Supplier<W> builder, Object... inputs) {
+        if (widget == null || !Arrays.equals(this.inputs, inputs)) {
+            widget = builder.get();
+            this.inputs = inputs;
+        }
+        return widget;
+    }
+
+}
@@ -14,24 +14,36 @@ public class TuiUtils {
     public static String[] truncateRow(
             String[] cells, Constraint[] widths, int terminalWidth,
             int borderOverhead, int columnSpacing, CharWidth.TruncatePosition position) {
-        int available = terminalWidth - borderOverhead - columnSpacing * Math.max(0, widths.length - 1);
-
-        Rect fakeArea = new Rect(0, 0, Math.max(available, 0), 1);
-
-        var rects = Layout.horizontal()
-                .constraints(java.util.Arrays.asList(widths))
-                .split(fakeArea);
+        return truncateRow(cells, columnWidths(widths, terminalWidth, borderOverhead, columnSpacing), position);
+    }
 
+    public static String[] truncateRow(String[] cells, int[] columnWidths, CharWidth.TruncatePosition position) {
         String[] result = new String[cells.length];
 
         for (int i = 0; i < cells.length; i++) {
-            int w = i < rects.size() ? rects.get(i).width() : 0;
+            int w = i < columnWidths.length ? columnWidths[i] : 0;
             result[i] = CharWidth.truncateWithEllipsis(cells[i], w, position);
         }
 
         return result;
     }
 
+    /**
+     * Resolves the column constraints of a table into widths once, so that rows can be
+     * truncated without running the layout again for each of them.
+     */
+    public static int[] columnWidths(Constraint[] widths, int terminalWidth, int borderOverhead, int columnSpacing) {
+        int available = terminalWidth - borderOverhead - columnSpacing * Math.max(0, widths.length - 1);
+
+        Rect fakeArea = new Rect(0, 0, Math.max(available, 0), 1);
+
+        var rects = Layout.horizontal()
+                .constraints(java.util.Arrays.asList(widths))
+                .split(fakeArea);
+
+        return rects.stream().mapToInt(Rect::width).toArray();
+    }
+
     public static Size computePreferredSize(Constraint[] constraints, int availableHeight) {
         int fixedTotal = 0;
         boolean allFixed = true;
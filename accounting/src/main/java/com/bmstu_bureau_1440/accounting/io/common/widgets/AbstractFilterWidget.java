@@ -3,8 +3,11 @@ package com.bmstu_bureau_1440.accounting.io.common.widgets;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.bmstu_bureau_1440.accounting.io.common.ItemData;
 import com.bmstu_bureau_1440.accounting.io.common.ItemData.Status;
+import com.bmstu_bureau_1440.accounting.io.common.ItemData;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
+import com.bmstu_bureau_1440.accounting.io.common.utils.RenderMemo;
 
 import dev.tamboui.layout.Rect;
 import dev.tamboui.style.Color;
@@ -14,7 +17,6 @@ import dev.tamboui.text.MarkupParser;
 import dev.tamboui.text.Text;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.toolkit.event.EventResult;
 import dev.tamboui.tui.event.KeyCode;
 import dev.tamboui.tui.event.KeyEvent;
@@ -24,24 +26,34 @@ import dev.tamboui.widgets.list.ListState;
 import dev.tamboui.widgets.list.ListWidget;
 import dev.tamboui.widgets.list.ScrollMode;
 
-public abstract class AbstractFilterWidget extends StyledElement<AbstractFilterWidget> {
+public abstract class AbstractFilterWidget extends ProfiledElement<AbstractFilterWidget> {
 
     private final ListState listState = new ListState();
     private List<ItemData> items = new ArrayList<>();
 
+    private final RenderMemo<ListWidget> list = new RenderMemo<>();
+
+    protected AbstractFilterWidget(RenderProfiler profiler) {
+        super(profiler);
+    }
+
     protected abstract List<ItemData> getItemsData();
 
     protected abstract void onItemSelected(ItemData itemData);
 
+    /**
+     * Version of the data the items are built from; together with {@link #getStateVersion()}
+     * it decides whether the items and the list built from them can be reused.
+     */
+    protected abstract long getDataVersion();
+
+    protected abstract long getStateVersion();
+
     @Override
-    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
-        setItemsData();
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
+        final ListWidget listWidget = list.get(this::buildList, getDataVersion(), getStateVersion());
         normalizeSelection();
-        renderList(frame, area);
-    }
-
-    private void setItemsData() {
-        this.items = getItemsData();
+        frame.renderStatefulWidget(listWidget, area, listState);
     }
 
     private void normalizeSelection() {
@@ -58,12 +70,14 @@ public abstract class AbstractFilterWidget extends StyledElement<AbstractFilterW
         }
     }
 
-    private void renderList(Frame frame, Rect area) {
+    private ListWidget buildList() {
+        this.items = getItemsData();
+
         var items = buildListItems().stream()
                 .map(ListItem::toSizedWidget)
                 .toList();
 
-        ListWidget list = ListWidget.builder()
+        return ListWidget.builder()
                 .items(items)
                 .style(Style.EMPTY.fg(Color.indexed(250)))
                 .highlightStyle(Style.EMPTY.bg(Color.indexed(238)).bold())
@@ -71,8 +85,6 @@ public abstract class AbstractFilterWidget extends StyledElement<AbstractFilterW
                 .scrollMode(ScrollMode.AUTO_SCROLL)
                 .scrollBarPolicy(ScrollBarPolicy.AS_NEEDED)
                 .build();
-
-        frame.renderStatefulWidget(list, area, listState);
     }
 
     private List<ListItem> buildListItems() {
@@ -102,7 +114,7 @@ public abstract class AbstractFilterWidget extends StyledElement<AbstractFilterW
     }
 
     @Override
-    public EventResult handleKeyEvent(KeyEvent event, boolean focused) {
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
         if (!focused) {
             return EventResult.UNHANDLED;
         }
@@ -129,7 +141,7 @@ public abstract class AbstractFilterWidget extends StyledElement<AbstractFilterW
     }
 
     @Override
-    public Size preferredSize(int availableWidth, int availableHeight, RenderContext context) {
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext context) {
         return Size.UNKNOWN;
     }
 
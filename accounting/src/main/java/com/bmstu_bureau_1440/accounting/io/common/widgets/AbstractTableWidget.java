@@ -1,6 +1,9 @@
 package com.bmstu_bureau_1440.accounting.io.common.widgets;
 
 import com.bmstu_bureau_1440.accounting.io.common.Column;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
+import com.bmstu_bureau_1440.accounting.io.common.utils.RenderMemo;
 import dev.tamboui.layout.Constraint;
 import dev.tamboui.layout.Rect;
 import dev.tamboui.style.Color;
@@ -9,19 +12,36 @@ import dev.tamboui.terminal.Frame;
 import dev.tamboui.text.CharWidth;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.widgets.table.Cell;
 import dev.tamboui.widgets.table.Row;
 import dev.tamboui.widgets.table.Table;
 import dev.tamboui.widgets.table.TableState;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
+import static com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils.columnWidths;
 import static com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils.truncateRow;
 
-public abstract class AbstractTableWidget<T, K> extends StyledElement<AbstractTableWidget<T, K>> {
+/**
+ * Table over a list provided by the controller.
+ * <p>
+ * Only the rows that fit into the viewport are built: the widget keeps its own scroll offset
+ * that follows the selection of the controller's {@link TableState} and hands the table just
+ * that window, so the cost of a frame doesn't depend on the size of the list. Formatted and
+ * truncated cells are cached per element until the data version or the width changes, and
+ * the whole table is reused as long as the data version, the controller state version, the
+ * selection and the size of the area stay the same.
+ */
+public abstract class AbstractTableWidget<T, K> extends ProfiledElement<AbstractTableWidget<T, K>> {
+
+    private static final int BORDER_OVERHEAD = 4;
+    private static final int COLUMN_SPACING = 1;
+
+    private static final Style ODD_ROW_STYLE = Style.EMPTY.bg(Color.indexed(236));
 
     protected final K controller;
 
@@ -29,10 +49,32 @@ public abstract class AbstractTableWidget<T, K> extends StyledElement<AbstractTa
 
     protected TableState tableState;
 
-    public AbstractTableWidget(K controller) {
+    private final Row header;
+
+    private final Constraint[] constraints;
+
+    private final TableState windowState = new TableState();
+
+    private int windowOffset;
+
+    private Map<T, String[]> cellsCache = new IdentityHashMap<>();
+
+    private long cachedVersion = -1;
+
+    private int cachedWidth = -1;
+
+    private int[] cachedColumnWidths;
+
+    private final RenderMemo<Table> table = new RenderMemo<>();
+
+    public AbstractTableWidget(K controller, RenderProfiler profiler) {
+        super(profiler);
         this.controller = controller;
         this.columns = getColumns();
         this.tableState = getStateProvider().apply(controller);
+        this.header = Row.from(columns.stream().map(Column::name).map(Cell::from).toArray(Cell[]::new))
+                .style(Style.EMPTY.bold().fg(Color.YELLOW));
+        this.constraints = columns.stream().map(Column::constraint).toArray(Constraint[]::new);
     }
 
     protected abstract Function<K, TableState> getStateProvider();
@@ -41,40 +83,80 @@ public abstract class AbstractTableWidget<T, K> extends StyledElement<AbstractTa
 
     protected abstract Function<K, List<T>> getDataProvider();
 
+    /**
+     * Version of everything the cells are formatted from; cached cells are dropped when it changes.
+     */
+    protected abstract Function<K, Long> getVersionProvider();
+
+    /**
+     * Version of the controller state shown by the table (selection, filters).
+     */
+    protected abstract Function<K, Long> getStateVersionProvider();
+
     @Override
-    protected void renderContent(Frame frame, Rect rect, RenderContext renderContext) {
+    protected void doRenderContent(Frame frame, Rect rect, RenderContext renderContext) {
+        final long version = getVersionProvider().apply(controller);
+        final Integer selected = tableState.selected();
+
+        frame.renderStatefulWidget(
+                table.get(() -> buildTable(rect, version, selected), version,
+                        getStateVersionProvider().apply(controller), selected, rect.width(), rect.height()),
+                rect, windowState);
+    }
+
+    private Table buildTable(Rect rect, long version, Integer selected) {
         List<T> data = getDataProvider().apply(controller);
 
-        Row header = Row.from(columns.stream().map(Column::name).map(Cell::from).toArray(Cell[]::new))
-                .style(Style.EMPTY.bold().fg(Color.YELLOW));
+        if (version != cachedVersion || rect.width() != cachedWidth) {
+            cellsCache.clear();
+            cachedColumnWidths = columnWidths(constraints, rect.width(), BORDER_OVERHEAD, COLUMN_SPACING);
+            cachedVersion = version;
+            cachedWidth = rect.width();
+        }
+
+        final int visibleRows = Math.max(0, rect.height() - 1 /* Header row */);
+        scrollTo(selected, visibleRows, data.size());
 
-        final Constraint[] constraints = columns.stream().map(Column::constraint).toArray(Constraint[]::new);
+        final int windowEnd = Math.min(data.size(), windowOffset + visibleRows);
+        final Map<T, String[]> windowCells = new IdentityHashMap<>();
 
-        List<Row> rows = new ArrayList<>();
+        List<Row> rows = new ArrayList<>(windowEnd - windowOffset);
 
-        for (int i = 0; i < data.size(); i++) {
+        for (int i = windowOffset; i < windowEnd; i++) {
             var object = data.get(i);
-            final var values = columns.stream().map(column -> column.valueExtractor().apply(object)).toArray(String[]::new);
-            final String[] truncatedValues = truncateRow(values, constraints, rect.width(), 4, 1, CharWidth.TruncatePosition.MIDDLE);
+            String[] cells = cellsCache.get(object);
+            if (cells == null) {
+                final var values = columns.stream().map(column -> column.valueExtractor().apply(object)).toArray(String[]::new);
+                cells = truncateRow(values, cachedColumnWidths, CharWidth.TruncatePosition.MIDDLE);
+            }
+            windowCells.put(object, cells);
 
-            Row row = Row.from(truncatedValues).style(i % 2 == 0 ? Style.EMPTY : Style.EMPTY.bg(Color.indexed(236)));
+            // stripes follow the position in the whole list so that they don't flicker while scrolling
+            Row row = Row.from(cells).style(i % 2 == 0 ? Style.EMPTY : ODD_ROW_STYLE);
 
             rows.add(row);
         }
 
-        Table table = Table.builder()
+        // only the cells of the current window are kept, so the cache is bounded by the viewport
+        cellsCache = windowCells;
+
+        if (selected != null && selected >= windowOffset && selected < windowEnd) {
+            windowState.select(selected - windowOffset);
+        } else {
+            windowState.clearSelection();
+        }
+
+        return Table.builder()
                 .header(header)
                 .rows(rows)
                 .widths(constraints)
                 .highlightStyle(Style.EMPTY.bg(Color.BLUE).fg(Color.WHITE).bold())
                 .highlightSymbol("▶ ")
                 .build();
-
-        frame.renderStatefulWidget(table, rect, tableState);
     }
 
     @Override
-    public Size preferredSize(int availableWidth, int availableHeight, RenderContext context) {
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext context) {
         int rowCount = getDataProvider().apply(controller).size();
         int height = rowCount + 1 /* Header row */;
         if (availableHeight > 0) {
@@ -84,4 +166,15 @@ public abstract class AbstractTableWidget<T, K> extends StyledElement<AbstractTa
         return Size.heightOnly(height);
     }
 
+    private void scrollTo(Integer selected, int visibleRows, int size) {
+        if (selected != null && selected >= 0 && visibleRows > 0) {
+            if (selected < windowOffset) {
+                windowOffset = selected;
+            } else if (selected >= windowOffset + visibleRows) {
+                windowOffset = selected - visibleRows + 1;
+            }
+        }
+        windowOffset = Math.max(0, Math.min(windowOffset, size - visibleRows));
+    }
+
 }
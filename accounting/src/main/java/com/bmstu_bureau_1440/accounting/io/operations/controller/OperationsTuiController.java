@@ -2,9 +2,10 @@ package com.bmstu_bureau_1440.accounting.io.operations.controller;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.ObjectUtils;
@@ -17,11 +18,10 @@ import com.bmstu_bureau_1440.accounting.io.shared.InputFields;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
 import com.bmstu_bureau_1440.accounting.models.Category;
 import com.bmstu_bureau_1440.accounting.models.Operation;
-import com.bmstu_bureau_1440.accounting.models.OperationType;
-import com.bmstu_bureau_1440.accounting.services.AccountsService;
 import com.bmstu_bureau_1440.accounting.services.AnalyticsService;
 import com.bmstu_bureau_1440.accounting.services.AnalyticsService.AnalyticsResult;
-import com.bmstu_bureau_1440.accounting.services.CategoriesService;
+import com.bmstu_bureau_1440.accounting.services.EntityNamesCache;
+import com.bmstu_bureau_1440.accounting.services.OperationsIndex;
 import com.bmstu_bureau_1440.accounting.services.OperationsService;
 
 import dev.tamboui.widgets.form.FormState;
@@ -36,9 +36,9 @@ public class OperationsTuiController {
     private final Storage storage;
 
     private final OperationsService operationsService;
-    private final AccountsService accountsService;
-    private final CategoriesService categoriesService;
     private final AnalyticsService analyticsService;
+    private final OperationsIndex operationsIndex;
+    private final EntityNamesCache entityNamesCache;
 
     @Getter
     private final TableState operationsTableState = new TableState();
@@ -46,6 +46,13 @@ public class OperationsTuiController {
     private final Set<String> selectedAccountIds = new HashSet<>();
     private final Set<String> selectedCategoryIds = new HashSet<>();
 
+    @Getter
+    private final FormState searchForm = FormState.builder()
+            .textField(InputFields.OPERATION_SEARCH.getFieldName(), StringUtils.EMPTY)
+            .build();
+
+    private String searchQuery = StringUtils.EMPTY;
+
     @Getter
     @Setter
     private Boolean removeOperationDialogVisible = false;
@@ -54,43 +61,57 @@ public class OperationsTuiController {
     private Operation selectedOperation;
 
     private static final String EMPTY_OPTION = "Empty";
-    private static final String DELETED_ENTITY_NAME = "[Deleted]";
 
     private FormState form;
 
-    private List<String> cachedAccountOptions = List.of();
-    private List<String> cachedCategoryOptions = List.of();
+    private List<String> accountOptions = List.of();
+    private List<String> categoryOptions = List.of();
+    private Map<String, Integer> accountOptionIndexes = Map.of();
+    private Map<String, Integer> categoryOptionIndexes = Map.of();
+    private long optionsVersion = -1;
+
+    private long stateVersion;
 
     public OperationsTuiController(Storage storage,
             OperationsService operationsService,
-            AccountsService accountsService,
-            CategoriesService categoriesService,
-            AnalyticsService analyticsService) {
+            AnalyticsService analyticsService,
+            OperationsIndex operationsIndex,
+            EntityNamesCache entityNamesCache) {
         this.storage = storage;
         this.operationsService = operationsService;
-        this.accountsService = accountsService;
-        this.categoriesService = categoriesService;
         this.analyticsService = analyticsService;
+        this.operationsIndex = operationsIndex;
+        this.entityNamesCache = entityNamesCache;
     }
 
     // Queries
+    public long getDataVersion() {
+        return storage.getVersion();
+    }
+
+    /**
+     * Changes with every command that may change the selection, the filters or the search query,
+     * so that widgets know when to rebuild.
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
     public List<Operation> getOperations() {
-        return storage.getOperations()
-                .stream()
-                .filter(operation -> selectedAccountIds.isEmpty()
-                        || selectedAccountIds.contains(operation.getBankAccountId()))
-                .filter(operation -> selectedCategoryIds.isEmpty()
-                        || selectedCategoryIds.contains(operation.getCategoryId()))
-                .toList();
+        return operationsIndex.filter(selectedAccountIds, selectedCategoryIds, searchQuery);
+    }
+
+    public String getSearchQuery() {
+        return searchQuery;
     }
 
     public List<BankAccount> getAccounts() {
-        selectedAccountIds.retainAll(storage.getAccounts().stream().map(BankAccount::getId).toList());
+        selectedAccountIds.removeIf(accountId -> storage.findAccountById(accountId).isEmpty());
         return storage.getAccounts();
     }
 
     public List<Category> getCategories() {
-        selectedCategoryIds.retainAll(storage.getCategories().stream().map(Category::getId).toList());
+        selectedCategoryIds.removeIf(categoryId -> storage.findCategoryById(categoryId).isEmpty());
         return storage.getCategories();
     }
 
@@ -119,8 +140,17 @@ public class OperationsTuiController {
         return analyticsService.getAnalytics();
     }
 
+    public String getAccountName(String accountId) {
+        return entityNamesCache.getAccountName(accountId);
+    }
+
+    public String getCategoryName(String categoryId) {
+        return entityNamesCache.getCategoryName(categoryId);
+    }
+
     // Commands
     public void selectPreviousOperation() {
+        stateVersion++;
         operationsTableState.selectPrevious();
         selectedOperation = TuiUtils.getSelectedObject(operationsTableState, getOperations());
         rebuildFormWithSelectedOperationData();
@@ -128,6 +158,7 @@ public class OperationsTuiController {
     }
 
     public void selectNextOperation() {
+        stateVersion++;
         operationsTableState.selectNext(getOperations().size());
         selectedOperation = TuiUtils.getSelectedObject(operationsTableState, getOperations());
         rebuildFormWithSelectedOperationData();
@@ -135,6 +166,7 @@ public class OperationsTuiController {
     }
 
     public void clearOperationSelection() {
+        stateVersion++;
         operationsTableState.clearSelection();
         selectedOperation = null;
         rebuildFormWithSelectedOperationData();
@@ -147,6 +179,7 @@ public class OperationsTuiController {
     }
 
     public void createOrUpdateOperation() {
+        stateVersion++;
         boolean isAccountValid = form.validationResult(InputFields.OPERATION_ACCOUNT.getFieldName()).isValid();
         boolean isCategoryValid = form.validationResult(InputFields.OPERATION_CATEGORY.getFieldName()).isValid();
         boolean isAmountValid = form.validationResult(InputFields.OPERATION_AMOUNT.getFieldName()).isValid();
@@ -165,7 +198,7 @@ public class OperationsTuiController {
 
             if (selectedOperation.getBankAccountId().equals(accountId)
                     && selectedOperation.getCategoryId().equals(categoryId)) {
-                selectedOperation.setDescription(description);
+                operationsService.updateDescription(selectedOperation, description);
                 return;
             } else {
                 operationsService.deleteOperation(selectedOperation);
@@ -184,6 +217,7 @@ public class OperationsTuiController {
     }
 
     public void removeOperation() {
+        stateVersion++;
         operationsService.deleteOperation(selectedOperation);
 
         setRemoveOperationDialogVisible(false);
@@ -202,6 +236,7 @@ public class OperationsTuiController {
     }
 
     public void toggleAccountSelection(String accountId) {
+        stateVersion++;
         if (selectedAccountIds.contains(accountId)) {
             selectedAccountIds.remove(accountId);
         } else {
@@ -211,6 +246,7 @@ public class OperationsTuiController {
     }
 
     public void toggleCategorySelection(String categoryId) {
+        stateVersion++;
         if (selectedCategoryIds.contains(categoryId)) {
             selectedCategoryIds.remove(categoryId);
         } else {
@@ -219,6 +255,21 @@ public class OperationsTuiController {
         selectFirstOperation();
     }
 
+    /**
+     * Takes the query from the search form after the search box has handled a key; a new query
+     * selects the first match like a new filter does.
+     */
+    public void applySearchQuery() {
+        final String query = searchForm.textValue(InputFields.OPERATION_SEARCH.getFieldName());
+        if (query == null || query.equals(searchQuery)) {
+            return;
+        }
+
+        stateVersion++;
+        searchQuery = query;
+        selectFirstOperation();
+    }
+
     private void rebuildFormWithSelectedOperationData() {
         final String selectedAccountId = selectedOperation == null ? null : selectedOperation.getBankAccountId();
         final String selectedCategoryId = selectedOperation == null ? null : selectedOperation.getCategoryId();
@@ -233,10 +284,7 @@ public class OperationsTuiController {
     }
 
     public void rebuildFormWithCurrentValues() {
-        final List<String> accountOptions = getAccountsSelectValues();
-        final List<String> categoryOptions = getCategoriesSelectValues();
-
-        if (accountOptions.equals(cachedAccountOptions) && categoryOptions.equals(cachedCategoryOptions)) {
+        if (!refreshOptions()) {
             return;
         }
 
@@ -246,15 +294,36 @@ public class OperationsTuiController {
         final String currentDescription = form.textValue(InputFields.OPERATION_DESCRIPTION.getFieldName());
 
         this.form = buildForm(currentAccountId, currentCategoryId, currentAmount, currentDescription);
+    }
 
-        this.cachedAccountOptions = List.copyOf(accountOptions);
-        this.cachedCategoryOptions = List.copyOf(categoryOptions);
+    /**
+     * Rebuilds the account and category options only after accounts or categories were added or
+     * removed, so that reading the form doesn't scan the storage.
+     *
+     * @return whether the options have changed
+     */
+    private boolean refreshOptions() {
+        if (storage.getMembershipVersion() == optionsVersion) {
+            return false;
+        }
+        optionsVersion = storage.getMembershipVersion();
+
+        final List<String> newAccountOptions = getAccountsSelectValues();
+        final List<String> newCategoryOptions = getCategoriesSelectValues();
+        if (newAccountOptions.equals(accountOptions) && newCategoryOptions.equals(categoryOptions)) {
+            return false;
+        }
+
+        accountOptions = newAccountOptions;
+        categoryOptions = newCategoryOptions;
+        accountOptionIndexes = indexOptions(accountOptions);
+        categoryOptionIndexes = indexOptions(categoryOptions);
+        return true;
     }
 
     private FormState buildForm(String selectedAccountId, String selectedCategoryId, String amount,
             String description) {
-        final List<String> accountOptions = getAccountsSelectValues();
-        final List<String> categoryOptions = getCategoriesSelectValues();
+        refreshOptions();
 
         final Builder builder = FormState.builder()
                 .selectField(InputFields.OPERATION_ACCOUNT.getFieldName(), accountOptions)
@@ -267,14 +336,16 @@ public class OperationsTuiController {
 
         if (selectedAccountId != null) {
 
-            accountIndex = accountOptions.indexOf(selectedAccountId);
+            accountIndex = accountOptionIndexes.getOrDefault(selectedAccountId, -1);
             if (accountIndex < 0) {
-                builder.selectField(InputFields.OPERATION_ACCOUNT.getFieldName(), List.of(DELETED_ENTITY_NAME));
+                builder.selectField(InputFields.OPERATION_ACCOUNT.getFieldName(),
+                        List.of(EntityNamesCache.DELETED_ENTITY_NAME));
             }
 
-            categoryIndex = categoryOptions.indexOf(selectedCategoryId);
+            categoryIndex = categoryOptionIndexes.getOrDefault(selectedCategoryId, -1);
             if (categoryIndex < 0) {
-                builder.selectField(InputFields.OPERATION_CATEGORY.getFieldName(), List.of(DELETED_ENTITY_NAME));
+                builder.selectField(InputFields.OPERATION_CATEGORY.getFieldName(),
+                        List.of(EntityNamesCache.DELETED_ENTITY_NAME));
             }
 
         }
@@ -294,7 +365,7 @@ public class OperationsTuiController {
         if (options.isEmpty()) {
             options.add(EMPTY_OPTION);
         }
-        return options;
+        return List.copyOf(options);
     }
 
     private List<String> getCategoriesSelectValues() {
@@ -302,23 +373,15 @@ public class OperationsTuiController {
         if (options.isEmpty()) {
             options.add(EMPTY_OPTION);
         }
-        return options;
-    }
-
-    public BankAccount getAccountById(String id) {
-        try {
-            return accountsService.getAccountById(id);
-        } catch (NoSuchElementException ignored) {
-            return new BankAccount(DELETED_ENTITY_NAME, BigDecimal.ZERO);
-        }
+        return List.copyOf(options);
     }
 
-    public Category getCategoryById(String id) {
-        try {
-            return categoriesService.getCategoryById(id);
-        } catch (NoSuchElementException ignored) {
-            return new Category(OperationType.UNKNOWN, DELETED_ENTITY_NAME);
+    private static Map<String, Integer> indexOptions(List<String> options) {
+        final Map<String, Integer> indexes = new HashMap<>(options.size() * 2);
+        for (int i = 0; i < options.size(); i++) {
+            indexes.putIfAbsent(options.get(i), i);
         }
+        return indexes;
     }
 
 }
@@ -6,17 +6,20 @@ import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.common.ItemData;
 import com.bmstu_bureau_1440.accounting.io.common.ItemData.Status;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.AbstractFilterWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
 
-import lombok.RequiredArgsConstructor;
-
 @Component
-@RequiredArgsConstructor
 public class AccountsSelectorFilterWidget extends AbstractFilterWidget {
 
     private final OperationsTuiController controller;
 
+    public AccountsSelectorFilterWidget(OperationsTuiController controller, RenderProfiler profiler) {
+        super(profiler);
+        this.controller = controller;
+    }
+
     @Override
     protected List<ItemData> getItemsData() {
         return controller.getAccounts()
@@ -32,4 +35,14 @@ public class AccountsSelectorFilterWidget extends AbstractFilterWidget {
     protected void onItemSelected(ItemData itemData) {
         controller.toggleAccountSelection(itemData.getKey());
     }
+
+    @Override
+    protected long getDataVersion() {
+        return controller.getDataVersion();
+    }
+
+    @Override
+    protected long getStateVersion() {
+        return controller.getStateVersion();
+    }
 }
@@ -7,6 +7,8 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils;
 import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
 import com.bmstu_bureau_1440.accounting.io.shared.InputFields;
@@ -22,17 +24,14 @@ import dev.tamboui.text.CharWidth;
 import dev.tamboui.text.Span;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.toolkit.elements.FormFieldElement;
 import dev.tamboui.tui.bindings.KeyTrigger;
 import dev.tamboui.tui.event.KeyCode;
 import dev.tamboui.widgets.form.Validators;
 import dev.tamboui.widgets.paragraph.Paragraph;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
-public class OperationsDetailsWidget extends StyledElement<OperationsDetailsWidget> {
+public class OperationsDetailsWidget extends ProfiledElement<OperationsDetailsWidget> {
 
     private final OperationsTuiController controller;
 
@@ -58,8 +57,13 @@ public class OperationsDetailsWidget extends StyledElement<OperationsDetailsWidg
             Constraint.fill() // Right spacer
     ).flex(Flex.CENTER);
 
+    public OperationsDetailsWidget(OperationsTuiController controller, RenderProfiler profiler) {
+        super(profiler);
+        this.controller = controller;
+    }
+
     @Override
-    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
         final Operation selectedOperation = controller.getSelectedOperation();
 
         List<Rect> areas = layout.split(area);
@@ -206,11 +210,7 @@ public class OperationsDetailsWidget extends StyledElement<OperationsDetailsWidg
             return StringUtils.EMPTY;
         }
 
-        try {
-            return controller.getAccountById(accountId).getName();
-        } catch (RuntimeException ignored) {
-            return StringUtils.EMPTY;
-        }
+        return controller.getAccountName(accountId);
     }
 
     private String resolveSelectedCategoryName() {
@@ -219,15 +219,11 @@ public class OperationsDetailsWidget extends StyledElement<OperationsDetailsWidg
             return StringUtils.EMPTY;
         }
 
-        try {
-            return controller.getCategoryById(categoryId).getName();
-        } catch (RuntimeException ignored) {
-            return StringUtils.EMPTY;
-        }
+        return controller.getCategoryName(categoryId);
     }
 
     @Override
-    public Size preferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
         return TuiUtils.computePreferredSize(layout.constraints().toArray(new Constraint[0]), availableHeight);
     }
 }
@@ -0,0 +1,85 @@
+package com.bmstu_bureau_1440.accounting.io.operations.view;
+
+import static dev.tamboui.toolkit.Toolkit.formField;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
+import com.bmstu_bureau_1440.accounting.io.common.utils.TuiUtils;
+import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
+import com.bmstu_bureau_1440.accounting.io.shared.InputFields;
+
+import dev.tamboui.layout.Constraint;
+import dev.tamboui.layout.Layout;
+import dev.tamboui.layout.Rect;
+import dev.tamboui.style.Color;
+import dev.tamboui.terminal.Frame;
+import dev.tamboui.text.Span;
+import dev.tamboui.toolkit.element.RenderContext;
+import dev.tamboui.toolkit.element.Size;
+import dev.tamboui.toolkit.elements.FormFieldElement;
+import dev.tamboui.toolkit.event.EventResult;
+import dev.tamboui.tui.event.KeyEvent;
+import dev.tamboui.widgets.paragraph.Paragraph;
+
+@Component
+public class OperationsSearchWidget extends ProfiledElement<OperationsSearchWidget> {
+
+    private final OperationsTuiController controller;
+
+    private static final Layout layout = Layout.vertical()
+            .constraints(
+                    Constraint.length(3), // Search input
+                    Constraint.length(1) // Matches count
+            );
+
+    // the panel around the widget takes the focus, keys reach the field through doHandleKeyEvent
+    private final FormFieldElement searchField;
+
+    public OperationsSearchWidget(OperationsTuiController controller, RenderProfiler profiler) {
+        super(profiler);
+        this.controller = controller;
+        this.searchField = formField("",
+                controller.getSearchForm().textField(InputFields.OPERATION_SEARCH.getFieldName()))
+                .formState(controller.getSearchForm(), InputFields.OPERATION_SEARCH.getFieldName())
+                .id(InputFields.OPERATION_SEARCH.getFieldId())
+                .labelWidth(Size.ZERO.width())
+                .spacing(Size.ZERO.width())
+                .rounded()
+                .borderColor(Color.DARK_GRAY)
+                .placeholder("Words or their beginnings");
+    }
+
+    @Override
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
+        List<Rect> areas = layout.split(area);
+
+        renderContext.renderChild(searchField, frame, areas.get(0));
+
+        if (!controller.getSearchQuery().isBlank()) {
+            frame.renderWidget(
+                    Paragraph.from(Span.raw("Matches: " + controller.getOperations().size()).dim()),
+                    areas.get(1));
+        }
+    }
+
+    @Override
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
+        if (!focused) {
+            return EventResult.UNHANDLED;
+        }
+
+        final EventResult result = searchField.handleKeyEvent(event, true);
+        controller.applySearchQuery();
+        return result;
+    }
+
+    @Override
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext renderContext) {
+        return TuiUtils.computePreferredSize(layout.constraints().toArray(new Constraint[0]), availableHeight);
+    }
+
+}
@@ -6,6 +6,7 @@ import java.util.function.Function;
 import org.springframework.stereotype.Component;
 
 import com.bmstu_bureau_1440.accounting.io.common.Column;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.AbstractTableWidget;
 import com.bmstu_bureau_1440.accounting.io.common.widgets.ConfirmationDialogWidget;
 import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
@@ -22,8 +23,8 @@ import dev.tamboui.widgets.table.TableState;
 @Component
 public class OperationsTableWidget extends AbstractTableWidget<Operation, OperationsTuiController> {
 
-    public OperationsTableWidget(OperationsTuiController controller) {
-        super(controller);
+    public OperationsTableWidget(OperationsTuiController controller, RenderProfiler profiler) {
+        super(controller, profiler);
     }
 
     @Override
@@ -36,9 +37,9 @@ public class OperationsTableWidget extends AbstractTableWidget<Operation, Operat
         return List.of(
                 new Column<>("Timestamp", Constraint.percentage(30), operation -> operation.getDate().toString()),
                 new Column<>("Account", Constraint.percentage(15),
-                        operation -> controller.getAccountById(operation.getBankAccountId()).getName()),
+                        operation -> controller.getAccountName(operation.getBankAccountId())),
                 new Column<>("Category", Constraint.percentage(15),
-                        operation -> controller.getCategoryById(operation.getCategoryId()).getName()),
+                        operation -> controller.getCategoryName(operation.getCategoryId())),
                 new Column<>("Amount", Constraint.percentage(10), operation -> operation.getAmount().toPlainString()),
                 new Column<>("Description", Constraint.fill(), Operation::getDescription));
     }
@@ -49,8 +50,18 @@ public class OperationsTableWidget extends AbstractTableWidget<Operation, Operat
     }
 
     @Override
-    protected void renderContent(Frame frame, Rect rect, RenderContext renderContext) {
-        super.renderContent(frame, rect, renderContext);
+    protected Function<OperationsTuiController, Long> getVersionProvider() {
+        return OperationsTuiController::getDataVersion;
+    }
+
+    @Override
+    protected Function<OperationsTuiController, Long> getStateVersionProvider() {
+        return OperationsTuiController::getStateVersion;
+    }
+
+    @Override
+    protected void doRenderContent(Frame frame, Rect rect, RenderContext renderContext) {
+        super.doRenderContent(frame, rect, renderContext);
 
         if (controller.getRemoveOperationDialogVisible()) {
             renderContext.renderChild(
@@ -62,7 +73,7 @@ public class OperationsTableWidget extends AbstractTableWidget<Operation, Operat
     }
 
     @Override
-    public EventResult handleKeyEvent(KeyEvent event, boolean focused) {
+    protected EventResult doHandleKeyEvent(KeyEvent event, boolean focused) {
         if (!focused) {
             return EventResult.UNHANDLED;
         }
@@ -2,7 +2,11 @@ package com.bmstu_bureau_1440.accounting.io.operations.view;
 
 import org.springframework.stereotype.Component;
 
+import com.bmstu_bureau_1440.accounting.io.common.profiling.ProfiledElement;
+import com.bmstu_bureau_1440.accounting.io.common.profiling.RenderProfiler;
+import com.bmstu_bureau_1440.accounting.io.common.utils.RenderMemo;
 import com.bmstu_bureau_1440.accounting.io.operations.controller.OperationsTuiController;
+import com.bmstu_bureau_1440.accounting.services.AnalyticsService.AnalyticsResult;
 
 import dev.tamboui.layout.Rect;
 import dev.tamboui.style.Color;
@@ -13,44 +17,51 @@ import dev.tamboui.text.Span;
 import dev.tamboui.text.Text;
 import dev.tamboui.toolkit.element.RenderContext;
 import dev.tamboui.toolkit.element.Size;
-import dev.tamboui.toolkit.element.StyledElement;
 import dev.tamboui.widgets.paragraph.Paragraph;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
-public class TotalSummaryWidget extends StyledElement<TotalSummaryWidget> {
+public class TotalSummaryWidget extends ProfiledElement<TotalSummaryWidget> {
 
     private final OperationsTuiController controller;
 
+    private final RenderMemo<Paragraph> paragraph = new RenderMemo<>();
+
+    public TotalSummaryWidget(OperationsTuiController controller, RenderProfiler profiler) {
+        super(profiler);
+        this.controller = controller;
+    }
+
     @Override
-    protected void renderContent(Frame frame, Rect area, RenderContext renderContext) {
+    protected void doRenderContent(Frame frame, Rect area, RenderContext renderContext) {
+        frame.renderWidget(paragraph.get(this::buildParagraph, controller.getDataVersion()), area);
+    }
+
+    private Paragraph buildParagraph() {
+        final AnalyticsResult analytics = controller.getAnalytics();
 
-        final Paragraph paragraph = Paragraph.from(
+        return Paragraph.from(
                 Text.from(
                         Line.from(
                                 new Span("Total balance: ",
                                         Style.EMPTY.fg(Color.YELLOW).bold()),
-                                Span.raw(controller.getAnalytics().totalBalance()
+                                Span.raw(analytics.totalBalance()
                                         .toString())),
                         Line.from(
                                 new Span("Total income: ",
                                         Style.EMPTY.fg(Color.LIGHT_CYAN)
                                                 .bold()),
-                                Span.raw(controller.getAnalytics().totalIncome()
+                                Span.raw(analytics.totalIncome()
                                         .toString())),
                         Line.from(
                                 new Span("Total expenses: ",
                                         Style.EMPTY.fg(Color.BRIGHT_WHITE)
                                                 .bold()),
-                                Span.raw(controller.getAnalytics().totalExpenses()
+                                Span.raw(analytics.totalExpenses()
                                         .toString()))));
-
-        frame.renderWidget(paragraph, area);
     }
 
     @Override
-    public Size preferredSize(int availableWidth, int availableHeight, RenderContext context) {
+    protected Size doPreferredSize(int availableWidth, int availableHeight, RenderContext context) {
         return Size.UNKNOWN;
     }
 
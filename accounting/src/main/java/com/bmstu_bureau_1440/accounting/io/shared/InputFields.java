@@ -15,7 +15,8 @@ public enum InputFields {
     OPERATION_ACCOUNT("operation-account", "operation-account-select"),
     OPERATION_CATEGORY("operation-category", " operation-category-select"),
     OPERATION_AMOUNT("amount", "operation-amount-input"),
-    OPERATION_DESCRIPTION("description", "operation-description-input");
+    OPERATION_DESCRIPTION("description", "operation-description-input"),
+    OPERATION_SEARCH("search", "operation-search-input");
 
     @Getter
     private final String fieldName;
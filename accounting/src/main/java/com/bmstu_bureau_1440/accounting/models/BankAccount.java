@@ -3,19 +3,18 @@ package com.bmstu_bureau_1440.accounting.models;
 import java.math.BigDecimal;
 import java.util.UUID;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @EqualsAndHashCode
-@AllArgsConstructor
-@NoArgsConstructor
 public class BankAccount {
 
     @Getter
-    private final String id = UUID.randomUUID().toString();
+    private final String id;
 
     @Getter
     @Setter
@@ -25,4 +24,18 @@ public class BankAccount {
     @Setter
     private BigDecimal balance;
 
+    public BankAccount(String name, BigDecimal balance) {
+        this(UUID.randomUUID().toString(), name, balance);
+    }
+
+    @JsonCreator
+    public BankAccount(
+            @JsonProperty("id") String id,
+            @JsonProperty("name") String name,
+            @JsonProperty("balance") BigDecimal balance) {
+        this.id = id;
+        this.name = name;
+        this.balance = balance;
+    }
+
 }
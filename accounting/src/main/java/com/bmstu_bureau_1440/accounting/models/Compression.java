@@ -0,0 +1,12 @@
+package com.bmstu_bureau_1440.accounting.models;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum Compression {
+    NONE(""), GZIP(".gz"), LZ4(".lz4");
+
+    private final String extension;
+}
@@ -1,5 +1,5 @@
 package com.bmstu_bureau_1440.accounting.models;
 
 public enum FileType {
-    CSV, JSON, YAML
+    CSV, JSON, YAML, BINARY
 }
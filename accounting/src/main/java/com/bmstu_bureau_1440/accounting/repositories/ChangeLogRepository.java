@@ -0,0 +1,470 @@
+package com.bmstu_bureau_1440.accounting.repositories;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
+import com.bmstu_bureau_1440.accounting.components.StorageSerializer;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Persists the storage between runs as a snapshot plus an append-only log of changes.
+ * <p>
+ * Every {@link StorageEvent} is appended to {@code changes-<generation>.log} as one JSON line
+ * and fsynced, so saving costs O(change) and a change survives a crash once it is announced;
+ * {@link #inBatch} fsyncs a batch of changes once. The records of a batch are enclosed in
+ * {@code BATCH_STARTED} and {@code BATCH_COMMITTED} records and replayed all or none, so e.g. a
+ * balance update is never restored without the operation that caused it. Once the log grows past
+ * {@value #COMPACTION_THRESHOLD} records (or the storage is reloaded by an import) a new generation
+ * is started and a point-in-time copy of the storage is written in the background as
+ * {@code snapshot-<generation>} using the binary {@link StorageSerializer} through
+ * {@link SafeStorageFiles}; older snapshots and logs are deleted afterwards. On startup the newest
+ * snapshot that passes verification is loaded and every log of the same or a later generation is
+ * replayed.
+ */
+@Repository
+public class ChangeLogRepository {
+
+    // not final, so that tests can keep the journal in a temporary directory
+    Path journalPath = Paths.get("accounting", "journal");
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String LOG_PREFIX = "changes-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final Pattern SNAPSHOT_PATTERN = Pattern.compile(SNAPSHOT_PREFIX + "(\\d+)");
+    private static final Pattern LOG_PATTERN = Pattern.compile(LOG_PREFIX + "(\\d+)\\" + LOG_SUFFIX);
+
+    private static final int COMPACTION_THRESHOLD = 10_000;
+
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final StorageSerializer snapshotSerializer;
+
+    private final SafeStorageFiles safeStorageFiles;
+
+    private final Storage storage;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService ioExecutor;
+
+    private FileChannel log;
+
+    // records of a batch that are not written yet
+    private final ByteArrayOutputStream pendingRecords = new ByteArrayOutputStream();
+
+    private long generation;
+
+    private int logRecords;
+
+    private boolean isRestoring;
+
+    private boolean isCompacting;
+
+    private PendingSnapshot pendingSnapshot;
+
+    private int batchDepth;
+
+    // the open batch has written its BATCH_STARTED record
+    private boolean isBatchStarted;
+
+    @Getter
+    private volatile Exception compactionFailure;
+
+    public ChangeLogRepository(List<StorageSerializer> serializers, SafeStorageFiles safeStorageFiles,
+            Storage storage, ApplicationEventPublisher eventPublisher, ExecutorService ioExecutor) {
+        this.snapshotSerializer = serializers.stream()
+                .filter(serializer -> serializer.getFileType() == FileType.BINARY)
+                .findFirst()
+                .orElseThrow();
+        this.safeStorageFiles = safeStorageFiles;
+        this.storage = storage;
+        this.eventPublisher = eventPublisher;
+        this.ioExecutor = ioExecutor;
+    }
+
+    public enum ChangeType {
+        OPERATION_ADDED, OPERATION_DELETED, OPERATION_UPDATED,
+        ACCOUNT_ADDED, ACCOUNT_DELETED, ACCOUNT_UPDATED,
+        CATEGORY_ADDED, CATEGORY_DELETED, CATEGORY_UPDATED,
+        BATCH_STARTED, BATCH_COMMITTED
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(ChangeType type, Operation operation, BankAccount account, Category category) {
+    }
+
+    private record PendingSnapshot(Storage snapshot, long generation) {
+    }
+
+    /**
+     * Loads the newest snapshot and replays the logged changes on top of it, replacing the
+     * content of the storage. Must be called once, before the storage is modified.
+     */
+    public synchronized void restore() {
+        isRestoring = true;
+        try {
+            Files.createDirectories(journalPath);
+
+            final Storage restored = restoreSnapshot();
+            for (long logGeneration : findGenerations(LOG_PATTERN)) {
+                if (logGeneration >= generation) {
+                    replay(logPath(logGeneration), restored);
+                    generation = logGeneration;
+                }
+            }
+
+            storage.replaceWith(restored);
+            eventPublisher.publishEvent(new StorageEvent.StorageReloaded());
+
+            openLog();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            isRestoring = false;
+        }
+    }
+
+    /**
+     * Loads the newest snapshot and sets its generation. A snapshot left incomplete by a crash
+     * has no files to read; the previous one and its logs are only deleted once a newer snapshot is
+     * complete, so it is loaded instead.
+     */
+    private Storage restoreSnapshot() throws Exception {
+        final long[] snapshotGenerations = findGenerations(SNAPSHOT_PATTERN);
+        for (int i = snapshotGenerations.length - 1; i >= 0; i--) {
+            try {
+                final Storage restored = safeStorageFiles.restore(snapshotSerializer,
+                        snapshotPath(snapshotGenerations[i]));
+                generation = snapshotGenerations[i];
+                return restored;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                if (i == 0) {
+                    throw e;
+                }
+            }
+        }
+
+        generation = 0;
+        return new Storage(null, null, null);
+    }
+
+    @EventListener
+    public synchronized void onStorageEvent(StorageEvent event) {
+        if (isRestoring || log == null) {
+            return;
+        }
+
+        final Change change = switch (event) {
+            case StorageEvent.OperationAdded added -> operationChange(ChangeType.OPERATION_ADDED, added.operation());
+            case StorageEvent.OperationDeleted deleted ->
+                operationChange(ChangeType.OPERATION_DELETED, deleted.operation());
+            case StorageEvent.OperationUpdated updated ->
+                operationChange(ChangeType.OPERATION_UPDATED, updated.operation());
+            case StorageEvent.AccountAdded added -> accountChange(ChangeType.ACCOUNT_ADDED, added.account());
+            case StorageEvent.AccountDeleted deleted -> accountChange(ChangeType.ACCOUNT_DELETED, deleted.account());
+            case StorageEvent.AccountUpdated updated -> accountChange(ChangeType.ACCOUNT_UPDATED, updated.account());
+            case StorageEvent.CategoryAdded added -> categoryChange(ChangeType.CATEGORY_ADDED, added.category());
+            case StorageEvent.CategoryDeleted deleted ->
+                categoryChange(ChangeType.CATEGORY_DELETED, deleted.category());
+            case StorageEvent.CategoryUpdated updated ->
+                categoryChange(ChangeType.CATEGORY_UPDATED, updated.category());
+            case StorageEvent.StorageReloaded reloaded -> null;
+        };
+
+        try {
+            if (change == null) {
+                // a reload can't be logged, so it starts a generation even while a snapshot is written
+                compact();
+                return;
+            }
+
+            if (batchDepth > 0 && !isBatchStarted) {
+                writeRecord(markerChange(ChangeType.BATCH_STARTED));
+                isBatchStarted = true;
+            }
+            writeRecord(change);
+            if (batchDepth == 0) {
+                syncLog();
+            } else if (pendingRecords.size() >= BATCH_BUFFER_SIZE) {
+                writePendingRecords();
+            }
+
+            if (++logRecords >= COMPACTION_THRESHOLD && batchDepth == 0 && !isCompacting) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs {@code changes} with the log fsynced once at the end instead of after every change,
+     * for bulk changes and for changes that must survive a crash together or not at all: the
+     * batch is committed at the end, even if {@code changes} fails, since whatever it changed
+     * stays in the storage. Compaction is
+     * deferred to the end as well, so that a bulk change is snapshotted once, not every
+     * {@value #COMPACTION_THRESHOLD} changes.
+     */
+    public void inBatch(Runnable changes) {
+        synchronized (this) {
+            batchDepth++;
+        }
+        try {
+            changes.run();
+        } finally {
+            synchronized (this) {
+                if (--batchDepth == 0 && log != null) {
+                    try {
+                        commitBatch();
+                        syncLog();
+                        if (logRecords >= COMPACTION_THRESHOLD && !isCompacting) {
+                            compact();
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new log generation and writes a snapshot of the current storage content in the
+     * background. Only the entities are copied here; if a snapshot is still being written, the
+     * new one is written after it, so that snapshots complete in generation order.
+     */
+    public synchronized void compact() throws IOException {
+        final Storage snapshot = storage.snapshot();
+
+        // a reload within a batch commits the changes before it, the snapshot covers them anyway
+        commitBatch();
+        syncLog();
+        log.close();
+        generation++;
+        openLog();
+
+        if (isCompacting) {
+            // supersedes a snapshot that is still waiting, its log is covered by this one
+            pendingSnapshot = new PendingSnapshot(snapshot, generation);
+            return;
+        }
+
+        isCompacting = true;
+        final long snapshotGeneration = generation;
+        ioExecutor.submit(() -> writeSnapshots(snapshot, snapshotGeneration));
+    }
+
+    private void writeSnapshots(Storage snapshot, long snapshotGeneration) {
+        PendingSnapshot next = new PendingSnapshot(snapshot, snapshotGeneration);
+        while (next != null) {
+            writeSnapshot(next.snapshot(), next.generation());
+            synchronized (this) {
+                next = pendingSnapshot;
+                pendingSnapshot = null;
+                isCompacting = next != null;
+            }
+        }
+    }
+
+    private void writeSnapshot(Storage snapshot, long snapshotGeneration) {
+        try {
+            // the snapshot is fsynced before anything it supersedes is deleted
+            safeStorageFiles.export(snapshotSerializer, snapshot, snapshotPath(snapshotGeneration));
+
+            for (long oldGeneration : findGenerations(SNAPSHOT_PATTERN)) {
+                if (oldGeneration < snapshotGeneration) {
+                    deleteRecursively(snapshotPath(oldGeneration));
+                }
+            }
+            for (long oldGeneration : findGenerations(LOG_PATTERN)) {
+                if (oldGeneration < snapshotGeneration) {
+                    Files.deleteIfExists(logPath(oldGeneration));
+                }
+            }
+            compactionFailure = null;
+        } catch (Exception e) {
+            // the previous snapshot and the logs are kept, so nothing is lost; the next compaction retries
+            compactionFailure = e;
+        }
+    }
+
+    private void replay(Path logPath, Storage target) throws IOException {
+        final List<String> lines = Files.readAllLines(logPath, StandardCharsets.UTF_8);
+        // changes of the batch being read, applied once its BATCH_COMMITTED record is read
+        List<Change> batch = null;
+        for (int i = 0; i < lines.size(); i++) {
+            final Change change;
+            try {
+                change = mapper.readValue(lines.get(i), Change.class);
+            } catch (RuntimeException e) {
+                if (i == lines.size() - 1) {
+                    // the last record was torn by a crash while it was being appended
+                    return;
+                }
+                throw e;
+            }
+            switch (change.type()) {
+                case BATCH_STARTED -> batch = new ArrayList<>();
+                case BATCH_COMMITTED -> {
+                    batch.forEach(batchChange -> apply(batchChange, target));
+                    batch = null;
+                }
+                default -> {
+                    if (batch != null) {
+                        batch.add(change);
+                    } else {
+                        apply(change, target);
+                    }
+                }
+            }
+        }
+        // a batch without its BATCH_COMMITTED record was cut by a crash and is discarded
+    }
+
+    private static void apply(Change change, Storage target) {
+        switch (change.type()) {
+            case OPERATION_ADDED -> target.addOperation(change.operation());
+            case OPERATION_DELETED -> target.findOperationById(change.operation().getId())
+                    .ifPresent(target::removeOperation);
+            case OPERATION_UPDATED -> target.findOperationById(change.operation().getId())
+                    .ifPresent(operation -> operation.setDescription(change.operation().getDescription()));
+            case ACCOUNT_ADDED -> target.addAccount(change.account());
+            case ACCOUNT_DELETED -> target.findAccountById(change.account().getId())
+                    .ifPresent(target::removeAccount);
+            case ACCOUNT_UPDATED -> target.findAccountById(change.account().getId()).ifPresent(account -> {
+                account.setName(change.account().getName());
+                account.setBalance(change.account().getBalance());
+            });
+            case CATEGORY_ADDED -> target.addCategory(change.category());
+            case CATEGORY_DELETED -> target.findCategoryById(change.category().getId())
+                    .ifPresent(target::removeCategory);
+            case CATEGORY_UPDATED -> target.findCategoryById(change.category().getId()).ifPresent(category -> {
+                category.setType(change.category().getType());
+                category.setName(change.category().getName());
+            });
+            case BATCH_STARTED, BATCH_COMMITTED -> throw new IllegalArgumentException("Batch record out of place");
+        }
+    }
+
+    private void openLog() throws IOException {
+        final Path logPath = logPath(generation);
+        final boolean isNew = !Files.exists(logPath);
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (isNew) {
+            syncDirectory(journalPath);
+        }
+        logRecords = 0;
+    }
+
+    private void writeRecord(Change change) throws IOException {
+        pendingRecords.write(mapper.writeValueAsBytes(change));
+        pendingRecords.write('\n');
+    }
+
+    private void commitBatch() throws IOException {
+        if (isBatchStarted) {
+            writeRecord(markerChange(ChangeType.BATCH_COMMITTED));
+            isBatchStarted = false;
+        }
+    }
+
+    private void syncLog() throws IOException {
+        writePendingRecords();
+        log.force(false);
+    }
+
+    private void writePendingRecords() throws IOException {
+        final ByteBuffer records = ByteBuffer.wrap(pendingRecords.toByteArray());
+        while (records.hasRemaining()) {
+            log.write(records);
+        }
+        pendingRecords.reset();
+    }
+
+    private long[] findGenerations(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(journalPath)) {
+            return files
+                    .map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToLong(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    private Path snapshotPath(long snapshotGeneration) {
+        return journalPath.resolve(SNAPSHOT_PREFIX + snapshotGeneration);
+    }
+
+    private Path logPath(long logGeneration) {
+        return journalPath.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+    }
+
+    private static Change operationChange(ChangeType type, Operation operation) {
+        return new Change(type, operation, null, null);
+    }
+
+    private static Change accountChange(ChangeType type, BankAccount account) {
+        return new Change(type, null, account, null);
+    }
+
+    private static Change categoryChange(ChangeType type, Category category) {
+        return new Change(type, null, null, category);
+    }
+
+    private static Change markerChange(ChangeType type) {
+        return new Change(type, null, null, null);
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform allows opening a directory
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+}
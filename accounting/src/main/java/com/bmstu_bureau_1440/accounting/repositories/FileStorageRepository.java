@@ -5,13 +5,21 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
 import com.bmstu_bureau_1440.accounting.components.StorageSerializer;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Compression;
 import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.models.Operation;
 
 @Repository
 public class FileStorageRepository {
@@ -20,33 +28,84 @@ public class FileStorageRepository {
 
     private final Map<FileType, StorageSerializer> serializers;
 
+    private final SafeStorageFiles safeStorageFiles;
+
     private final Storage storage;
 
-    public FileStorageRepository(List<StorageSerializer> serializers, Storage storage) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FileStorageRepository(List<StorageSerializer> serializers, SafeStorageFiles safeStorageFiles,
+            Storage storage, ApplicationEventPublisher eventPublisher) {
         this.serializers = serializers.stream()
                 .collect(Collectors.toMap(StorageSerializer::getFileType, Function.identity()));
+        this.safeStorageFiles = safeStorageFiles;
         this.storage = storage;
+        this.eventPublisher = eventPublisher;
     }
 
     public void exportToFile(FileType fileType) {
+        exportToFile(fileType, Compression.NONE);
+    }
+
+    public void exportToFile(FileType fileType, Compression compression) {
+        exportToFile(fileType, compression, storage);
+    }
+
+    public void exportToFile(FileType fileType, Storage source) {
+        exportToFile(fileType, Compression.NONE, source);
+    }
+
+    public void exportToFile(FileType fileType, Compression compression, Storage source) {
+        exportToFile(fileType, compression, source, rows -> {
+        });
+    }
+
+    /**
+     * @param rowsWritten see {@link StorageSerializer#serialize(Storage, Compression, LongConsumer, Path)}
+     */
+    public void exportToFile(FileType fileType, Compression compression, Storage source, LongConsumer rowsWritten) {
         try {
             StorageSerializer serializer = serializers.get(fileType);
-            serializer.serialize(storage, exportPath);
+            safeStorageFiles.export(serializer, source, compression, rowsWritten, exportPath);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
     public void importFromFile(FileType fileType) {
+        importFromFile(fileType, Compression.NONE);
+    }
+
+    public void importFromFile(FileType fileType, Compression compression) {
         try {
             StorageSerializer serializer = serializers.get(fileType);
-            var restoredStorage = serializer.deserialize(exportPath);
-            storage.setOperations(restoredStorage.getOperations());
-            storage.setAccounts(restoredStorage.getAccounts());
-            storage.setCategories(restoredStorage.getCategories());
+            var restoredStorage = safeStorageFiles.restore(serializer, compression, exportPath);
+            validate(restoredStorage);
+            storage.replaceWith(restoredStorage);
+            eventPublisher.publishEvent(new StorageEvent.StorageReloaded());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    // operations of deleted accounts and categories are legitimate, so only the entities themselves are checked
+    private static void validate(Storage restoredStorage) {
+        for (BankAccount account : restoredStorage.getAccounts()) {
+            if (account.getId() == null || account.getBalance() == null) {
+                throw new IllegalArgumentException("Invalid account in the imported file: " + account.getId());
+            }
+        }
+        for (Category category : restoredStorage.getCategories()) {
+            if (category.getId() == null || category.getType() == null) {
+                throw new IllegalArgumentException("Invalid category in the imported file: " + category.getId());
+            }
+        }
+        for (Operation operation : restoredStorage.getOperations()) {
+            if (operation.getId() == null || operation.getBankAccountId() == null
+                    || operation.getCategoryId() == null || operation.getAmount() == null) {
+                throw new IllegalArgumentException("Invalid operation in the imported file: " + operation.getId());
+            }
+        }
+    }
+
 }
@@ -3,9 +3,11 @@ package com.bmstu_bureau_1440.accounting.services;
 import java.math.BigDecimal;
 
 import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
 import com.bmstu_bureau_1440.accounting.models.Operation;
 
@@ -18,36 +20,51 @@ public class AccountsService {
 
     private final Storage storage;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public BankAccount addNewBankAccount(String name, BigDecimal balance) {
         final BankAccount account = new BankAccount(name, ObjectUtils.isEmpty(balance) ? BigDecimal.ZERO : balance);
-        storage.getAccounts().add(account);
+        storage.addAccount(account);
+        eventPublisher.publishEvent(new StorageEvent.AccountAdded(account));
         return account;
     }
 
     public void renameAccount(BankAccount account, String name) {
         account.setName(name);
+        eventPublisher.publishEvent(new StorageEvent.AccountUpdated(account, account.getBalance()));
     }
 
     public void applyOperation(@NonNull Operation operation, boolean isRollback) {
-        final BankAccount bankAccount = getAccountById(operation.getBankAccountId());
         final BigDecimal operationAmount = isRollback ? operation.getAmount().negate() : operation.getAmount();
-        final BigDecimal updatedBalance = bankAccount.getBalance().add(operationAmount);
+        applyBalanceChange(getAccountById(operation.getBankAccountId()), operationAmount);
+    }
+
+    /**
+     * Adds {@code delta} to the balance of {@code bankAccount} with a single
+     * {@link StorageEvent.AccountUpdated}, e.g. the sum of a batch of operations.
+     */
+    public void applyBalanceChange(@NonNull BankAccount bankAccount, @NonNull BigDecimal delta) {
+        final BigDecimal updatedBalance = bankAccount.getBalance().add(delta);
 
         if (updatedBalance.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Cannot apply operation: account balance cannot be negative");
         }
 
+        final BigDecimal previousBalance = bankAccount.getBalance();
         bankAccount.setBalance(updatedBalance);
+        eventPublisher.publishEvent(new StorageEvent.AccountUpdated(bankAccount, previousBalance));
     }
 
     public boolean deleteAccount(BankAccount account) {
-        return storage.getAccounts().remove(account);
+        if (!storage.removeAccount(account)) {
+            return false;
+        }
+
+        eventPublisher.publishEvent(new StorageEvent.AccountDeleted(account));
+        return true;
     }
 
     public BankAccount getAccountById(String id) {
-        return storage.getAccounts().stream()
-                .filter(account -> account.getId().equals(id))
-                .findFirst()
-                .orElseThrow();
+        return storage.findAccountById(id).orElseThrow();
     }
 }
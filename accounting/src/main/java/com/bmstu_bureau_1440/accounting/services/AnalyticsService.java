@@ -1,53 +1,211 @@
 package com.bmstu_bureau_1440.accounting.services;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
 import com.bmstu_bureau_1440.accounting.models.BankAccount;
 import com.bmstu_bureau_1440.accounting.models.Category;
 import com.bmstu_bureau_1440.accounting.models.Operation;
 import com.bmstu_bureau_1440.accounting.models.OperationType;
 
-import lombok.RequiredArgsConstructor;
-
+/**
+ * Keeps balance, income and expenses totals up to date by listening to {@link StorageEvent}s,
+ * so that reading them is O(1) regardless of the number of stored operations.
+ * <p>
+ * Operations are classified by the type of their category at the moment they were added.
+ * Operations left without a category don't count: deleting a category rolls its operations
+ * back, the same way a rescan skips them. A full rescan happens only when the storage is
+ * reloaded.
+ * <p>
+ * Date-range totals and daily/weekly/monthly series are answered from {@link Rollup}s kept for
+ * all operations, for every category and for every account.
+ * <p>
+ * Exports and the script runner read from other threads, so the queries hold the same lock as
+ * the event handling; {@link #getAnalytics()}, read on every frame, returns the last published
+ * result without locking.
+ */
 @Service
-@RequiredArgsConstructor
 public class AnalyticsService {
 
+    private static final Rollup EMPTY_ROLLUP = new Rollup();
+
     private final Storage storage;
 
-    private final CategoriesService categoriesService;
+    private final Map<String, OperationType> categoryTypes = new HashMap<>();
+
+    private final Map<String, BigDecimal> categoryTotals = new HashMap<>();
+
+    private final Map<String, Totals> accountTotals = new HashMap<>();
+
+    private final Rollup rollup = new Rollup();
+
+    private final Map<String, Rollup> categoryRollups = new HashMap<>();
+
+    private final Map<String, Rollup> accountRollups = new HashMap<>();
+
+    private BigDecimal totalBalance = BigDecimal.ZERO;
+
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+
+    private BigDecimal totalExpenses = BigDecimal.ZERO;
+
+    private volatile AnalyticsResult snapshot;
+
+    public AnalyticsService(Storage storage) {
+        this.storage = storage;
+        recalculate();
+    }
 
     public record AnalyticsResult(BigDecimal totalBalance, BigDecimal totalIncome, BigDecimal totalExpenses) {
     }
 
+    public record Totals(BigDecimal income, BigDecimal expenses) {
+
+        public static final Totals EMPTY = new Totals(BigDecimal.ZERO, BigDecimal.ZERO);
+
+        Totals add(OperationType type, BigDecimal amount) {
+            return switch (type) {
+                case DEPOSIT -> new Totals(income.add(amount), expenses);
+                case WITHDRAWAL -> new Totals(income, expenses.add(amount));
+                default -> this;
+            };
+        }
+
+    }
+
+    // Queries
     public AnalyticsResult getAnalytics() {
+        return snapshot;
+    }
+
+    public synchronized BigDecimal getCategoryTotal(String categoryId) {
+        return categoryTotals.getOrDefault(categoryId, BigDecimal.ZERO);
+    }
 
-        BigDecimal totalBalance = BigDecimal.ZERO;
-        BigDecimal totalIncome = BigDecimal.ZERO;
-        BigDecimal totalExpenses = BigDecimal.ZERO;
+    public synchronized Totals getAccountTotals(String accountId) {
+        return accountTotals.getOrDefault(accountId, Totals.EMPTY);
+    }
+
+    public synchronized Totals getTotals(LocalDate from, LocalDate to) {
+        return rollup.getTotals(from, to);
+    }
+
+    public synchronized Totals getCategoryTotals(String categoryId, LocalDate from, LocalDate to) {
+        return categoryRollups.getOrDefault(categoryId, EMPTY_ROLLUP).getTotals(from, to);
+    }
+
+    public synchronized Totals getAccountTotals(String accountId, LocalDate from, LocalDate to) {
+        return accountRollups.getOrDefault(accountId, EMPTY_ROLLUP).getTotals(from, to);
+    }
+
+    public synchronized List<Rollup.Bucket> getRollup(Rollup.Period period, LocalDate from, LocalDate to) {
+        return rollup.getBuckets(period, from, to);
+    }
+
+    public synchronized List<Rollup.Bucket> getCategoryRollup(String categoryId, Rollup.Period period, LocalDate from,
+            LocalDate to) {
+        return categoryRollups.getOrDefault(categoryId, EMPTY_ROLLUP).getBuckets(period, from, to);
+    }
+
+    public synchronized List<Rollup.Bucket> getAccountRollup(String accountId, Rollup.Period period, LocalDate from,
+            LocalDate to) {
+        return accountRollups.getOrDefault(accountId, EMPTY_ROLLUP).getBuckets(period, from, to);
+    }
+
+    // Commands
+    @EventListener
+    public synchronized void onStorageEvent(StorageEvent event) {
+        switch (event) {
+            case StorageEvent.OperationAdded added -> applyOperation(added.operation(), false);
+            case StorageEvent.OperationDeleted deleted -> applyOperation(deleted.operation(), true);
+            case StorageEvent.AccountAdded added -> totalBalance = totalBalance.add(added.account().getBalance());
+            case StorageEvent.AccountDeleted deleted -> {
+                totalBalance = totalBalance.subtract(deleted.account().getBalance());
+                accountTotals.remove(deleted.account().getId());
+                accountRollups.remove(deleted.account().getId());
+            }
+            case StorageEvent.AccountUpdated updated -> totalBalance = totalBalance
+                    .add(updated.account().getBalance())
+                    .subtract(updated.previousBalance());
+            case StorageEvent.CategoryAdded added ->
+                categoryTypes.put(added.category().getId(), added.category().getType());
+            case StorageEvent.CategoryDeleted deleted -> removeCategory(deleted.category().getId());
+            case StorageEvent.StorageReloaded reloaded -> recalculate();
+            default -> {
+                return;
+            }
+        }
+
+        publishSnapshot();
+    }
+
+    private void applyOperation(Operation operation, boolean isRollback) {
+        final OperationType type = categoryTypes.getOrDefault(operation.getCategoryId(), OperationType.UNKNOWN);
+        if (type == OperationType.UNKNOWN) {
+            return;
+        }
+
+        final BigDecimal amount = isRollback ? operation.getAmount().negate() : operation.getAmount();
+
+        if (type == OperationType.DEPOSIT) {
+            totalIncome = totalIncome.add(amount);
+        } else {
+            totalExpenses = totalExpenses.add(amount);
+        }
+        categoryTotals.merge(operation.getCategoryId(), amount, BigDecimal::add);
+        accountTotals.merge(operation.getBankAccountId(), Totals.EMPTY.add(type, amount),
+                (current, delta) -> current.add(type, amount));
+
+        if (operation.getDate() != null) {
+            final LocalDate date = operation.getDate().toLocalDate();
+            rollup.add(date, type, amount);
+            categoryRollups.computeIfAbsent(operation.getCategoryId(), id -> new Rollup()).add(date, type, amount);
+            accountRollups.computeIfAbsent(operation.getBankAccountId(), id -> new Rollup()).add(date, type, amount);
+        }
+    }
+
+    private void removeCategory(String categoryId) {
+        for (Operation operation : storage.getOperationsByCategoryId(categoryId)) {
+            applyOperation(operation, true);
+        }
+        categoryTypes.remove(categoryId);
+        categoryTotals.remove(categoryId);
+        categoryRollups.remove(categoryId);
+    }
+
+    private synchronized void recalculate() {
+        categoryTypes.clear();
+        categoryTotals.clear();
+        accountTotals.clear();
+        rollup.clear();
+        categoryRollups.clear();
+        accountRollups.clear();
+        totalIncome = BigDecimal.ZERO;
+        totalExpenses = BigDecimal.ZERO;
 
         totalBalance = storage.getAccounts().stream().map(BankAccount::getBalance).reduce(BigDecimal.ZERO,
                 BigDecimal::add);
 
+        for (Category category : storage.getCategories()) {
+            categoryTypes.put(category.getId(), category.getType());
+        }
         for (Operation operation : storage.getOperations()) {
-            final Category category = categoriesService.getCategoryById(operation.getCategoryId());
-
-            switch (category.getType()) {
-                case OperationType.DEPOSIT:
-                    totalIncome = totalIncome.add(operation.getAmount());
-                    break;
-                case OperationType.WITHDRAWAL:
-                    totalExpenses = totalExpenses.add(operation.getAmount());
-                    break;
-                default:
-                    break;
-            }
+            applyOperation(operation, false);
         }
 
-        return new AnalyticsResult(totalBalance, totalIncome, totalExpenses);
+        publishSnapshot();
+    }
+
+    private void publishSnapshot() {
+        snapshot = new AnalyticsResult(totalBalance, totalIncome, totalExpenses);
     }
 
 }
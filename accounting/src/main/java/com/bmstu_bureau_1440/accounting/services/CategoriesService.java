@@ -1,9 +1,11 @@
 package com.bmstu_bureau_1440.accounting.services;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
 import com.bmstu_bureau_1440.accounting.models.Category;
 import com.bmstu_bureau_1440.accounting.models.OperationType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -12,21 +14,31 @@ public class CategoriesService {
 
     private final Storage storage;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public Category addNewCategory(String name, OperationType type) {
         Category category = new Category(type, name);
-        storage.getCategories().add(category);
+        storage.addCategory(category);
+        eventPublisher.publishEvent(new StorageEvent.CategoryAdded(category));
         return category;
     }
 
+    public void renameCategory(Category category, String name) {
+        category.setName(name);
+        eventPublisher.publishEvent(new StorageEvent.CategoryUpdated(category));
+    }
+
     public boolean deleteCategory(Category category) {
-        return storage.getCategories().remove(category);
+        if (!storage.removeCategory(category)) {
+            return false;
+        }
+
+        eventPublisher.publishEvent(new StorageEvent.CategoryDeleted(category));
+        return true;
     }
 
     public Category getCategoryById(String id) {
-        return storage.getCategories().stream()
-                .filter(category -> category.getId().equals(id))
-                .findFirst()
-                .orElseThrow();
+        return storage.findCategoryById(id).orElseThrow();
     }
 
 }
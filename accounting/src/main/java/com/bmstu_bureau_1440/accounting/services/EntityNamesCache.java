@@ -0,0 +1,76 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+
+/**
+ * Id to display name dictionaries of accounts and categories, kept up to date by {@link StorageEvent}s.
+ * <p>
+ * Operations outlive the accounts and categories they refer to, so an unknown id resolves to the
+ * shared {@link #DELETED_ENTITY_NAME} instead of failing; resolving a name is a single hash lookup.
+ */
+@Service
+public class EntityNamesCache {
+
+    public static final String DELETED_ENTITY_NAME = "[Deleted]";
+
+    private final Storage storage;
+
+    private final Map<String, String> accountNames = new HashMap<>();
+
+    private final Map<String, String> categoryNames = new HashMap<>();
+
+    public EntityNamesCache(Storage storage) {
+        this.storage = storage;
+        rebuild();
+    }
+
+    // Queries
+    public synchronized String getAccountName(String accountId) {
+        return accountNames.getOrDefault(accountId, DELETED_ENTITY_NAME);
+    }
+
+    public synchronized String getCategoryName(String categoryId) {
+        return categoryNames.getOrDefault(categoryId, DELETED_ENTITY_NAME);
+    }
+
+    // Commands
+    @EventListener
+    public synchronized void onStorageEvent(StorageEvent event) {
+        switch (event) {
+            case StorageEvent.AccountAdded added -> put(added.account());
+            case StorageEvent.AccountUpdated updated -> put(updated.account());
+            case StorageEvent.AccountDeleted deleted -> accountNames.remove(deleted.account().getId());
+            case StorageEvent.CategoryAdded added -> put(added.category());
+            case StorageEvent.CategoryUpdated updated -> put(updated.category());
+            case StorageEvent.CategoryDeleted deleted -> categoryNames.remove(deleted.category().getId());
+            case StorageEvent.StorageReloaded reloaded -> rebuild();
+            default -> {
+            }
+        }
+    }
+
+    private synchronized void rebuild() {
+        accountNames.clear();
+        categoryNames.clear();
+        storage.getAccounts().forEach(this::put);
+        storage.getCategories().forEach(this::put);
+    }
+
+    private void put(BankAccount account) {
+        accountNames.put(account.getId(), account.getName());
+    }
+
+    private void put(Category category) {
+        categoryNames.put(category.getId(), category.getName());
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.stereotype.Service;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.repositories.FileStorageRepository;
+
+import lombok.NonNull;
+
+/**
+ * Runs exports on a dedicated background thread so that the TUI never waits for I/O.
+ * <p>
+ * A request takes a point-in-time {@link Storage#snapshot() snapshot} of the storage on the
+ * calling thread, which copies the entities but builds no indexes, and queues it.
+ * Requests for a format that is already queued but not started yet only replace the queued copy,
+ * so bursts of requests coalesce into a single export of the latest state. Every format has a
+ * status of its own, with the rows written so far while it runs. Autosave, when configured, is
+ * driven by {@link #autosaveIfDue()} from the thread that owns the storage.
+ */
+@Service
+public class ExportScheduler implements AutoCloseable {
+
+    private final Storage storage;
+
+    private final FileStorageRepository repository;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("accounting-export").daemon().factory());
+
+    private final Map<FileType, Storage> pending = new EnumMap<>(FileType.class);
+
+    private final Map<FileType, Status> statuses = new EnumMap<>(FileType.class);
+
+    private FileType autosaveFileType;
+
+    private Duration autosaveInterval;
+
+    private long nextAutosaveNanos;
+
+    public ExportScheduler(Storage storage, FileStorageRepository repository) {
+        this.storage = storage;
+        this.repository = repository;
+    }
+
+    public enum State {
+        IDLE, QUEUED, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * @param rowsWritten entities written so far, while {@link State#RUNNING}
+     * @param rows        entities to write, while {@link State#RUNNING}
+     */
+    public record Status(State state, FileType fileType, String message, long rowsWritten, long rows) {
+
+        public Status(State state, FileType fileType, String message) {
+            this(state, fileType, message, 0, 0);
+        }
+
+        public String describe() {
+            return switch (state) {
+                case IDLE -> "";
+                case QUEUED -> "Export of " + fileType + " queued";
+                case RUNNING -> "Exporting " + fileType + "... " + rowsWritten + " of " + rows + " rows";
+                case DONE -> "Exported " + fileType + " " + message;
+                case FAILED -> "Export of " + fileType + " failed: " + message;
+            };
+        }
+
+    }
+
+    // Queries
+    public Status getStatus(@NonNull FileType fileType) {
+        synchronized (statuses) {
+            return statuses.getOrDefault(fileType, new Status(State.IDLE, fileType, null));
+        }
+    }
+
+    /**
+     * @return the statuses of the formats that were requested, in the order of {@link FileType}
+     */
+    public List<Status> getStatuses() {
+        synchronized (statuses) {
+            return List.copyOf(statuses.values());
+        }
+    }
+
+    // Commands
+    public void requestExport(@NonNull FileType... fileTypes) {
+        final Storage snapshot = storage.snapshot();
+
+        synchronized (pending) {
+            for (FileType fileType : fileTypes) {
+                if (pending.put(fileType, snapshot) == null) {
+                    executor.submit(() -> export(fileType));
+                }
+                synchronized (statuses) {
+                    // a running export of the format reports its own progress until it ends
+                    if (getStatus(fileType).state() != State.RUNNING) {
+                        statuses.put(fileType, new Status(State.QUEUED, fileType, null));
+                    }
+                }
+            }
+        }
+    }
+
+    public void configureAutosave(@NonNull FileType fileType, @NonNull Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Autosave interval must be positive");
+        }
+
+        autosaveFileType = fileType;
+        autosaveInterval = interval;
+        nextAutosaveNanos = System.nanoTime() + interval.toNanos();
+    }
+
+    /**
+     * Requests the autosave export when its interval has elapsed. Must be called from the thread
+     * that modifies the storage, e.g. on every rendered frame.
+     */
+    public void autosaveIfDue() {
+        if (autosaveInterval == null || System.nanoTime() - nextAutosaveNanos < 0) {
+            return;
+        }
+
+        nextAutosaveNanos = System.nanoTime() + autosaveInterval.toNanos();
+        requestExport(autosaveFileType);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void export(FileType fileType) {
+        final Storage snapshot;
+        synchronized (pending) {
+            snapshot = pending.remove(fileType);
+        }
+
+        final long rows = (long) snapshot.getAccounts().size() + snapshot.getCategories().size()
+                + snapshot.getOperations().size();
+        final long[] rowsWritten = { 0 };
+        setStatus(new Status(State.RUNNING, fileType, null, 0, rows));
+        final long start = System.nanoTime();
+        // set in finally, so that even an Error doesn't leave the format RUNNING forever
+        Status result = new Status(State.FAILED, fileType, "Export was interrupted");
+        try {
+            repository.exportToFile(fileType, Compression.NONE, snapshot, written -> {
+                synchronized (statuses) {
+                    rowsWritten[0] += written;
+                    statuses.put(fileType, new Status(State.RUNNING, fileType, null, rowsWritten[0], rows));
+                }
+            });
+            result = new Status(State.DONE, fileType,
+                    "in " + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms");
+        } catch (Throwable e) {
+            final Throwable cause = e instanceof RuntimeException && e.getCause() != null ? e.getCause() : e;
+            result = new Status(State.FAILED, fileType, cause.getMessage());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            setStatus(result);
+        }
+    }
+
+    private void setStatus(Status status) {
+        synchronized (statuses) {
+            statuses.put(status.fileType(), status);
+        }
+    }
+
+}
@@ -0,0 +1,342 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+import lombok.NonNull;
+
+/**
+ * Answers "operations of these accounts and these categories whose description matches this
+ * query" from per-account and per-category posting lists kept as {@link BitSet}s over operation
+ * slots, and from an inverted index of description terms.
+ * <p>
+ * Descriptions are split into terms at every character that is not a letter or a digit and
+ * lower-cased. Every term of a query must be a prefix of some term of the description, so
+ * {@code "cof sh"} finds "Coffee shop". Terms are kept sorted, a prefix is looked up as a range
+ * of them, and their posting lists are sorted slot arrays since most terms are rare.
+ * <p>
+ * Slots are assigned in insertion order, so iterating the set bits of a filter yields the
+ * operations in the order of {@link Storage#getOperations()}. Deleted operations leave an empty
+ * slot behind until there are more empty slots than live ones, then the slots are rebuilt. The
+ * result of the last filter is memoized as an immutable list: a change of the index that can
+ * affect it (e.g. adding or deleting an operation that matches it) or another filter recomputes
+ * it from the bitsets, while changes that don't match keep returning the same list.
+ */
+@Service
+public class OperationsIndex {
+
+    private static final int MIN_SLOTS_TO_COMPACT = 1024;
+
+    private final Storage storage;
+
+    private final List<Operation> slots = new ArrayList<>();
+
+    private final Map<String, Integer> slotsById = new HashMap<>();
+
+    private final BitSet live = new BitSet();
+
+    private final Map<String, BitSet> slotsByAccountId = new HashMap<>();
+
+    private final Map<String, BitSet> slotsByCategoryId = new HashMap<>();
+
+    private final NavigableMap<String, Postings> slotsByTerm = new TreeMap<>();
+
+    // the description each slot was indexed with, as operations are edited in place
+    private final List<String> indexedDescriptions = new ArrayList<>();
+
+    private Set<String> filteredAccountIds;
+
+    private Set<String> filteredCategoryIds;
+
+    private List<String> filteredTerms;
+
+    private List<Operation> filtered;
+
+    public OperationsIndex(Storage storage) {
+        this.storage = storage;
+        rebuild();
+    }
+
+    // Queries
+
+    /**
+     * Returns the operations that belong to one of {@code accountIds} and to one of
+     * {@code categoryIds}; an empty set doesn't restrict the result.
+     *
+     * @return an immutable list
+     */
+    public List<Operation> filter(@NonNull Set<String> accountIds, @NonNull Set<String> categoryIds) {
+        return filter(accountIds, categoryIds, "");
+    }
+
+    /**
+     * Returns the operations that belong to one of {@code accountIds} and to one of
+     * {@code categoryIds} and whose description matches {@code query}; an empty set or a blank
+     * query doesn't restrict the result.
+     *
+     * @return an immutable list
+     */
+    public synchronized List<Operation> filter(@NonNull Set<String> accountIds, @NonNull Set<String> categoryIds,
+            @NonNull String query) {
+        final List<String> terms = terms(query);
+        if (filtered == null || !accountIds.equals(filteredAccountIds) || !categoryIds.equals(filteredCategoryIds)
+                || !terms.equals(filteredTerms)) {
+            filteredAccountIds = Set.copyOf(accountIds);
+            filteredCategoryIds = Set.copyOf(categoryIds);
+            filteredTerms = terms;
+            filtered = List.copyOf(collect(matchingSlots(filteredAccountIds, filteredCategoryIds, filteredTerms)));
+        }
+
+        return filtered;
+    }
+
+    // Commands
+    @EventListener
+    public synchronized void onStorageEvent(StorageEvent event) {
+        switch (event) {
+            case StorageEvent.OperationAdded added -> add(added.operation());
+            case StorageEvent.OperationDeleted deleted -> remove(deleted.operation());
+            case StorageEvent.OperationUpdated updated -> updateDescription(updated.operation());
+            case StorageEvent.StorageReloaded reloaded -> rebuild();
+            default -> {
+            }
+        }
+    }
+
+    private void add(Operation operation) {
+        final int slot = slots.size();
+        slots.add(operation);
+        slotsById.put(operation.getId(), slot);
+        live.set(slot);
+        slotsByAccountId.computeIfAbsent(operation.getBankAccountId(), id -> new BitSet()).set(slot);
+        slotsByCategoryId.computeIfAbsent(operation.getCategoryId(), id -> new BitSet()).set(slot);
+        indexedDescriptions.add(operation.getDescription());
+        addTerms(operation.getDescription(), slot);
+
+        if (filtered != null && matches(operation)) {
+            filtered = null;
+        }
+    }
+
+    private void remove(Operation operation) {
+        final Integer slot = slotsById.remove(operation.getId());
+        if (slot == null) {
+            return;
+        }
+
+        slots.set(slot, null);
+        live.clear(slot);
+        clear(slotsByAccountId, operation.getBankAccountId(), slot);
+        clear(slotsByCategoryId, operation.getCategoryId(), slot);
+        removeTerms(indexedDescriptions.set(slot, null), slot);
+
+        if (filtered != null && matches(operation)) {
+            filtered = null;
+        }
+
+        final int emptySlots = slots.size() - slotsById.size();
+        if (emptySlots >= MIN_SLOTS_TO_COMPACT && emptySlots > slotsById.size()) {
+            rebuild();
+        }
+    }
+
+    private void updateDescription(Operation operation) {
+        final Integer slot = slotsById.get(operation.getId());
+        if (slot == null || Objects.equals(indexedDescriptions.get(slot), operation.getDescription())) {
+            return;
+        }
+
+        removeTerms(indexedDescriptions.set(slot, operation.getDescription()), slot);
+        addTerms(operation.getDescription(), slot);
+
+        if (filtered != null && !filteredTerms.isEmpty()) {
+            filtered = null;
+        }
+    }
+
+    private synchronized void rebuild() {
+        slots.clear();
+        slotsById.clear();
+        live.clear();
+        slotsByAccountId.clear();
+        slotsByCategoryId.clear();
+        slotsByTerm.clear();
+        indexedDescriptions.clear();
+        filtered = null;
+
+        storage.getOperations().forEach(this::add);
+    }
+
+    private boolean matches(Operation operation) {
+        return (filteredAccountIds.isEmpty() || filteredAccountIds.contains(operation.getBankAccountId()))
+                && (filteredCategoryIds.isEmpty() || filteredCategoryIds.contains(operation.getCategoryId()))
+                && (filteredTerms.isEmpty() || matchesTerms(terms(operation.getDescription()), filteredTerms));
+    }
+
+    static boolean matchesTerms(List<String> descriptionTerms, List<String> queryTerms) {
+        return queryTerms.stream()
+                .allMatch(prefix -> descriptionTerms.stream().anyMatch(term -> term.startsWith(prefix)));
+    }
+
+    private BitSet matchingSlots(Set<String> accountIds, Set<String> categoryIds, List<String> terms) {
+        final BitSet result = (BitSet) live.clone();
+        if (!accountIds.isEmpty()) {
+            result.and(union(slotsByAccountId, accountIds));
+        }
+        if (!categoryIds.isEmpty()) {
+            result.and(union(slotsByCategoryId, categoryIds));
+        }
+        for (String prefix : terms) {
+            if (result.isEmpty()) {
+                break;
+            }
+            result.and(prefixUnion(prefix));
+        }
+        return result;
+    }
+
+    private BitSet prefixUnion(String prefix) {
+        final BitSet result = new BitSet();
+        for (Postings postings : slotsByTerm.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            postings.addTo(result);
+        }
+        return result;
+    }
+
+    private void addTerms(String description, int slot) {
+        for (String term : terms(description)) {
+            slotsByTerm.computeIfAbsent(term, key -> new Postings()).add(slot);
+        }
+    }
+
+    private void removeTerms(String description, int slot) {
+        for (String term : terms(description)) {
+            final Postings postings = slotsByTerm.get(term);
+            if (postings != null && postings.remove(slot)) {
+                slotsByTerm.remove(term);
+            }
+        }
+    }
+
+    /**
+     * @return the distinct lower-cased letter-or-digit runs of {@code text}, in order
+     */
+    static List<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        // descriptions have a handful of terms, so a list is a cheaper set than a hash set
+        final List<String> terms = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final boolean isTermChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isTermChar && start < 0) {
+                start = i;
+            } else if (!isTermChar && start >= 0) {
+                final String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private List<Operation> collect(BitSet matching) {
+        final List<Operation> result = new ArrayList<>(matching.cardinality());
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            result.add(slots.get(slot));
+        }
+        return result;
+    }
+
+    private static BitSet union(Map<String, BitSet> postings, Set<String> keys) {
+        final BitSet result = new BitSet();
+        for (String key : keys) {
+            final BitSet slots = postings.get(key);
+            if (slots != null) {
+                result.or(slots);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sorted slots of one term; appending is O(1) since new operations get the highest slot.
+     */
+    private static final class Postings {
+
+        private int[] slots = new int[2];
+
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            if (size == 0 || slots[size - 1] < slot) {
+                slots[size++] = slot;
+                return;
+            }
+
+            final int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                return;
+            }
+            final int insertion = -index - 1;
+            System.arraycopy(slots, insertion, slots, insertion + 1, size - insertion);
+            slots[insertion] = slot;
+            size++;
+        }
+
+        /**
+         * @return whether no slots are left
+         */
+        boolean remove(int slot) {
+            final int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+                size--;
+            }
+            return size == 0;
+        }
+
+        void addTo(BitSet result) {
+            for (int i = 0; i < size; i++) {
+                result.set(slots[i]);
+            }
+        }
+
+    }
+
+    private static void clear(Map<String, BitSet> postings, String key, int slot) {
+        final BitSet slots = postings.get(key);
+        if (slots == null) {
+            return;
+        }
+
+        slots.clear(slot);
+        if (slots.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+import lombok.NonNull;
+
+/**
+ * A page request of {@link OperationsQueryService}: which operations, in which order and how many
+ * at once. Empty sets, a blank search and a null {@code where} don't restrict the result; the
+ * search matches descriptions the same way as {@link OperationsIndex}.
+ *
+ * @param where any other condition, checked last
+ * @param limit the page size
+ */
+public record OperationsQuery(Set<String> accountIds, Set<String> categoryIds, String search,
+        Predicate<Operation> where, @NonNull Sort sort, boolean descending, int limit) {
+
+    /**
+     * Ties are broken by date, then by id, so every order is total and a page can start right
+     * after the last operation of the previous one.
+     */
+    public enum Sort {
+        DATE, AMOUNT, ACCOUNT, CATEGORY
+    }
+
+    public OperationsQuery {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+
+        accountIds = accountIds == null ? Set.of() : Set.copyOf(accountIds);
+        categoryIds = categoryIds == null ? Set.of() : Set.copyOf(categoryIds);
+        search = search == null ? "" : search;
+        where = where == null ? operation -> true : where;
+    }
+
+    public static OperationsQuery all(@NonNull Sort sort, boolean descending, int limit) {
+        return new OperationsQuery(Set.of(), Set.of(), "", null, sort, descending, limit);
+    }
+
+}
@@ -0,0 +1,305 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+import lombok.NonNull;
+
+/**
+ * Returns sorted pages of operations without sorting the whole list.
+ * <p>
+ * Operations are kept in red-black trees ordered by date for every account and for every
+ * category, and in one tree ordered by amount. Sorting by account (or category) walks the
+ * per-account trees in the order of the account names, sorting by date merges the per-account
+ * trees, so an account filter narrows the merge for free. Pages are requested with the
+ * {@link Cursor} of the previous page (keyset pagination): the next page starts with a tree
+ * lookup, however deep it is. Other filters are checked while walking, so a page costs
+ * O(log n) plus the number of operations skipped.
+ * <p>
+ * The trees are built on the first query and kept up to date by {@link StorageEvent}s from then on.
+ */
+@Service
+public class OperationsQueryService {
+
+    private static final Comparator<Operation> DATE_ORDER = Comparator
+            .comparing(Operation::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Operation::getId);
+
+    private static final Comparator<Operation> AMOUNT_ORDER = Comparator
+            .comparing(Operation::getAmount)
+            .thenComparing(DATE_ORDER);
+
+    private final Storage storage;
+
+    private final EntityNamesCache entityNamesCache;
+
+    private final Map<String, NavigableSet<Operation>> byAccount = new HashMap<>();
+
+    private final Map<String, NavigableSet<Operation>> byCategory = new HashMap<>();
+
+    private final NavigableSet<Operation> byAmount = new TreeSet<>(AMOUNT_ORDER);
+
+    private boolean built;
+
+    public OperationsQueryService(Storage storage, EntityNamesCache entityNamesCache) {
+        this.storage = storage;
+        this.entityNamesCache = entityNamesCache;
+    }
+
+    /**
+     * Where a page ended; pass it to {@link #query} to get the next one.
+     */
+    public record Cursor(Operation last) {
+    }
+
+    /**
+     * @param next the cursor of the following page, null if this page is the last one
+     */
+    public record Page(List<Operation> operations, Cursor next) {
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+    }
+
+    // Queries
+
+    /**
+     * @param after the cursor of the previous page, null for the first page
+     */
+    public synchronized Page query(@NonNull OperationsQuery query, Cursor after) {
+        if (!built) {
+            rebuild();
+        }
+
+        final Operation from = after == null ? null : after.last();
+        final Iterator<Operation> ordered = switch (query.sort()) {
+            case DATE -> merge(groups(byAccount, query.accountIds()), query.descending(), from);
+            case AMOUNT -> tail(byAmount, query.descending(), from).iterator();
+            case ACCOUNT -> concat(byAccount, query.accountIds(), entityNamesCache::getAccountName,
+                    Operation::getBankAccountId, query.descending(), from);
+            case CATEGORY -> concat(byCategory, query.categoryIds(), entityNamesCache::getCategoryName,
+                    Operation::getCategoryId, query.descending(), from);
+        };
+
+        final List<String> terms = OperationsIndex.terms(query.search());
+        final List<Operation> page = new ArrayList<>(query.limit() + 1);
+        while (page.size() <= query.limit() && ordered.hasNext()) {
+            final Operation operation = ordered.next();
+            if (matches(query, terms, operation)) {
+                page.add(operation);
+            }
+        }
+
+        if (page.size() <= query.limit()) {
+            return new Page(List.copyOf(page), null);
+        }
+        page.removeLast();
+        return new Page(List.copyOf(page), new Cursor(page.getLast()));
+    }
+
+    // Commands
+    @EventListener
+    public synchronized void onStorageEvent(StorageEvent event) {
+        if (!built) {
+            return;
+        }
+
+        switch (event) {
+            case StorageEvent.OperationAdded added -> add(added.operation());
+            case StorageEvent.OperationDeleted deleted -> remove(deleted.operation());
+            case StorageEvent.StorageReloaded reloaded -> clear();
+            default -> {
+            }
+        }
+    }
+
+    private void rebuild() {
+        clear();
+        storage.getOperations().forEach(this::add);
+        built = true;
+    }
+
+    private void clear() {
+        byAccount.clear();
+        byCategory.clear();
+        byAmount.clear();
+        built = false;
+    }
+
+    private void add(Operation operation) {
+        byAccount.computeIfAbsent(operation.getBankAccountId(), id -> new TreeSet<>(DATE_ORDER)).add(operation);
+        byCategory.computeIfAbsent(operation.getCategoryId(), id -> new TreeSet<>(DATE_ORDER)).add(operation);
+        byAmount.add(operation);
+    }
+
+    private void remove(Operation operation) {
+        remove(byAccount, operation.getBankAccountId(), operation);
+        remove(byCategory, operation.getCategoryId(), operation);
+        byAmount.remove(operation);
+    }
+
+    private static void remove(Map<String, NavigableSet<Operation>> groups, String key, Operation operation) {
+        final NavigableSet<Operation> operations = groups.get(key);
+        if (operations == null) {
+            return;
+        }
+
+        operations.remove(operation);
+        if (operations.isEmpty()) {
+            groups.remove(key);
+        }
+    }
+
+    private static boolean matches(OperationsQuery query, List<String> terms, Operation operation) {
+        return (query.accountIds().isEmpty() || query.accountIds().contains(operation.getBankAccountId()))
+                && (query.categoryIds().isEmpty() || query.categoryIds().contains(operation.getCategoryId()))
+                && (terms.isEmpty() || OperationsIndex.matchesTerms(OperationsIndex.terms(operation.getDescription()),
+                        terms))
+                && query.where().test(operation);
+    }
+
+    private static List<NavigableSet<Operation>> groups(Map<String, NavigableSet<Operation>> groups,
+            Set<String> keys) {
+        if (keys.isEmpty()) {
+            return List.copyOf(groups.values());
+        }
+        return keys.stream().filter(groups::containsKey).map(groups::get).toList();
+    }
+
+    // the part of the tree after the operation a previous page ended with
+    private static NavigableSet<Operation> tail(NavigableSet<Operation> operations, boolean descending,
+            Operation from) {
+        final NavigableSet<Operation> ordered = descending ? operations.descendingSet() : operations;
+        return from == null ? ordered : ordered.tailSet(from, false);
+    }
+
+    private static Iterator<Operation> merge(List<NavigableSet<Operation>> groups, boolean descending,
+            Operation from) {
+        final Comparator<Operation> order = descending ? DATE_ORDER.reversed() : DATE_ORDER;
+        final List<Iterator<Operation>> iterators = groups.stream()
+                .map(group -> tail(group, descending, from).iterator())
+                .toList();
+        return new MergingIterator(iterators, order);
+    }
+
+    /**
+     * Walks the groups ordered by name (then key), each in date order, starting after {@code from}.
+     */
+    private static Iterator<Operation> concat(Map<String, NavigableSet<Operation>> groups, Set<String> keys,
+            Function<String, String> names, Function<Operation, String> keyOf, boolean descending,
+            Operation from) {
+        // legacy files may have entities without a name
+        Comparator<String> order = Comparator.comparing(names, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(Comparator.naturalOrder());
+        if (descending) {
+            order = order.reversed();
+        }
+
+        final List<String> ordered = new ArrayList<>(keys.isEmpty() ? groups.keySet() : keys);
+        ordered.retainAll(groups.keySet());
+        ordered.sort(order);
+
+        final List<Iterator<Operation>> iterators = new ArrayList<>(ordered.size());
+        for (String key : ordered) {
+            if (from == null) {
+                iterators.add(tail(groups.get(key), descending, null).iterator());
+                continue;
+            }
+
+            final int position = order.compare(key, keyOf.apply(from));
+            if (position == 0) {
+                iterators.add(tail(groups.get(key), descending, from).iterator());
+            } else if (position > 0) {
+                iterators.add(tail(groups.get(key), descending, null).iterator());
+            }
+        }
+        return new ConcatenatingIterator(iterators);
+    }
+
+    private static final class ConcatenatingIterator implements Iterator<Operation> {
+
+        private final Iterator<Iterator<Operation>> rest;
+
+        private Iterator<Operation> current = Collections.emptyIterator();
+
+        ConcatenatingIterator(List<Iterator<Operation>> iterators) {
+            rest = iterators.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && rest.hasNext()) {
+                current = rest.next();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Operation next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+    }
+
+    /**
+     * K-way merge of iterators that are sorted by the same order.
+     */
+    private static final class MergingIterator implements Iterator<Operation> {
+
+        private record Head(Operation operation, Iterator<Operation> rest) {
+        }
+
+        private final PriorityQueue<Head> heads;
+
+        MergingIterator(List<Iterator<Operation>> iterators, Comparator<Operation> order) {
+            heads = new PriorityQueue<>(Math.max(1, iterators.size()), Comparator.comparing(Head::operation, order));
+            iterators.forEach(this::advance);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Operation next() {
+            final Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.rest());
+            return head.operation();
+        }
+
+        private void advance(Iterator<Operation> iterator) {
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+    }
+
+}
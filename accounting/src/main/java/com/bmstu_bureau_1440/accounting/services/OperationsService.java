@@ -1,13 +1,28 @@
 package com.bmstu_bureau_1440.accounting.services;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
 import com.bmstu_bureau_1440.accounting.models.Operation;
 import com.bmstu_bureau_1440.accounting.models.OperationType;
+import com.bmstu_bureau_1440.accounting.repositories.ChangeLogRepository;
 
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -20,6 +35,28 @@ public class OperationsService {
 
     private final CategoriesService categoriesService;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ChangeLogRepository changeLogRepository;
+
+    /**
+     * A row of {@link #addOperations}. The amount is unsigned as in {@link #addNewOperation}, the
+     * category type gives the sign; a null date means now.
+     */
+    public record NewOperation(String accountId, String categoryId, BigDecimal amount, LocalDateTime date,
+            String description) {
+    }
+
+    private record Row(int number, Operation operation) {
+    }
+
+    private record BalanceChange(BankAccount account, BigDecimal delta, int firstOverdraftRow) {
+    }
+
+    /**
+     * Adds the operation and changes the balance of its account, logged as one
+     * {@link ChangeLogRepository#inBatch batch} so that neither survives a crash without the other.
+     */
     public Operation addNewOperation(String accountId, String categoryId, BigDecimal amount, String description) {
 
         OperationType categoryType = categoriesService.getCategoryById(categoryId).getType();
@@ -32,15 +69,123 @@ public class OperationsService {
 
         Operation operation = new Operation(accountId, categoryId, amount, description);
 
-        accountsService.applyOperation(operation, false);
-        storage.getOperations().add(operation);
+        changeLogRepository.inBatch(() -> {
+            accountsService.applyOperation(operation, false);
+            try {
+                storage.addOperation(operation);
+            } catch (RuntimeException e) {
+                accountsService.applyOperation(operation, true);
+                throw e;
+            }
 
+            eventPublisher.publishEvent(new StorageEvent.OperationAdded(operation));
+        });
         return operation;
     }
 
+    /**
+     * Adds all rows (e.g. of a bank statement) or none of them.
+     * <p>
+     * Rows are validated in parallel, and the non-negative balance rule is checked on the running
+     * total of every account in row order. If any row fails, the first failing one is reported
+     * and nothing is changed or announced. Otherwise the operations are appended to the storage in
+     * one step and every account gets its balance changed once by the sum of its rows, so nothing
+     * ever has to be undone. The changes are logged as one {@link ChangeLogRepository#inBatch
+     * batch}, so the journal is fsynced once and restores all of them or none.
+     *
+     * @return the added operations, in the order of the rows
+     */
+    public List<Operation> addOperations(@NonNull Stream<NewOperation> newOperations) {
+        final List<NewOperation> input = newOperations.toList();
+
+        final Map<Integer, String> errors = new ConcurrentSkipListMap<>();
+        final List<Row> rows = IntStream.range(0, input.size()).parallel()
+                .mapToObj(i -> {
+                    try {
+                        return new Row(i + 1, toOperation(input.get(i)));
+                    } catch (RuntimeException e) {
+                        errors.put(i + 1, e.getMessage());
+                        return null;
+                    }
+                })
+                .toList();
+        if (!errors.isEmpty()) {
+            final var firstError = errors.entrySet().iterator().next();
+            throw new IllegalArgumentException("Row " + firstError.getKey() + ": " + firstError.getValue());
+        }
+
+        final List<BalanceChange> balanceChanges = rows.parallelStream()
+                .collect(Collectors.groupingBy(row -> row.operation().getBankAccountId()))
+                .entrySet().parallelStream()
+                .map(entry -> toBalanceChange(accountsService.getAccountById(entry.getKey()), entry.getValue()))
+                .toList();
+        balanceChanges.stream()
+                .filter(change -> change.firstOverdraftRow() > 0)
+                .min(Comparator.comparingInt(BalanceChange::firstOverdraftRow))
+                .ifPresent(change -> {
+                    throw new IllegalArgumentException("Row " + change.firstOverdraftRow()
+                            + ": account balance cannot be negative");
+                });
+
+        final List<Operation> operations = rows.stream().map(Row::operation).toList();
+        changeLogRepository.inBatch(() -> {
+            // the storage checks the ids before appending anything, and the balances were checked above
+            storage.addOperations(operations);
+            balanceChanges.forEach(change -> accountsService.applyBalanceChange(change.account(), change.delta()));
+            operations.forEach(operation -> eventPublisher.publishEvent(new StorageEvent.OperationAdded(operation)));
+        });
+        return operations;
+    }
+
     public boolean deleteOperation(Operation operation) {
-        accountsService.applyOperation(operation, true);
-        return storage.getOperations().remove(operation);
+        if (storage.findOperationById(operation.getId()).isEmpty()) {
+            return false;
+        }
+
+        changeLogRepository.inBatch(() -> {
+            accountsService.applyOperation(operation, true);
+            storage.removeOperation(operation);
+            eventPublisher.publishEvent(new StorageEvent.OperationDeleted(operation));
+        });
+        return true;
+    }
+
+    public void updateDescription(Operation operation, String description) {
+        operation.setDescription(description);
+        eventPublisher.publishEvent(new StorageEvent.OperationUpdated(operation));
+    }
+
+    private Operation toOperation(NewOperation row) {
+        final Category category = storage.findCategoryById(row.categoryId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown category: " + row.categoryId()));
+        if (category.getType() == OperationType.UNKNOWN) {
+            throw new IllegalArgumentException("Category type is unknown");
+        }
+        if (storage.findAccountById(row.accountId()).isEmpty()) {
+            throw new IllegalArgumentException("Unknown account: " + row.accountId());
+        }
+        if (row.amount() == null) {
+            throw new IllegalArgumentException("Amount is missing");
+        }
+
+        final BigDecimal amount = category.getType() == OperationType.WITHDRAWAL ? row.amount().negate() : row.amount();
+        return row.date() == null
+                ? new Operation(row.accountId(), row.categoryId(), amount, row.description())
+                : new Operation(UUID.randomUUID().toString(), row.accountId(), row.categoryId(), amount, row.date(),
+                        row.description());
+    }
+
+    // rows are in their original order within an account, so the running total follows the statement
+    private static BalanceChange toBalanceChange(BankAccount account, List<Row> rows) {
+        BigDecimal balance = account.getBalance();
+        int firstOverdraftRow = 0;
+        for (Row row : rows) {
+            balance = balance.add(row.operation().getAmount());
+            if (firstOverdraftRow == 0 && balance.signum() < 0) {
+                firstOverdraftRow = row.number();
+            }
+        }
+        return new BalanceChange(account, balance.subtract(account.getBalance()), firstOverdraftRow);
     }
 
 }
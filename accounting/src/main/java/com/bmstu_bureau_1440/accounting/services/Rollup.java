@@ -0,0 +1,238 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+
+import lombok.NonNull;
+
+/**
+ * Income and expenses of a set of operations rolled up into daily, weekly and monthly buckets.
+ * <p>
+ * Exact {@link BigDecimal} sums are kept in arrays indexed by epoch day, epoch week (weeks start
+ * on Monday) and epoch month, so a date-range query only touches the buckets covering the range:
+ * whole months plus the days at both edges. Like the category totals, the sums are not rounded
+ * and cannot overflow, so adding an operation never fails.
+ */
+public class Rollup {
+
+    private static final long EPOCH_WEEK_SHIFT = 3;
+
+    public enum Period {
+        DAY, WEEK, MONTH
+    }
+
+    public record Bucket(LocalDate start, BigDecimal income, BigDecimal expenses) {
+    }
+
+    private final Buckets days = new Buckets();
+
+    private final Buckets weeks = new Buckets();
+
+    private final Buckets months = new Buckets();
+
+    // Queries
+    public AnalyticsService.Totals getTotals(@NonNull LocalDate from, @NonNull LocalDate to) {
+        // only the days that have buckets matter, e.g. LocalDate.MAX is not a month edge to compute
+        final long firstDay = Math.max(from.toEpochDay(), days.first());
+        final long lastDay = Math.min(to.toEpochDay(), days.last());
+        if (firstDay > lastDay) {
+            return AnalyticsService.Totals.EMPTY;
+        }
+        final LocalDate first = LocalDate.ofEpochDay(firstDay);
+        final LocalDate last = LocalDate.ofEpochDay(lastDay);
+
+        final BigDecimal[] sum = { BigDecimal.ZERO, BigDecimal.ZERO };
+        final boolean startsMonth = first.getDayOfMonth() == 1;
+        final boolean endsMonth = last.equals(YearMonth.from(last).atEndOfMonth());
+        final long firstFullMonth = startsMonth ? monthIndex(first) : monthIndex(first) + 1;
+        final long lastFullMonth = endsMonth ? monthIndex(last) : monthIndex(last) - 1;
+
+        if (firstFullMonth > lastFullMonth) {
+            days.sum(firstDay, lastDay, sum);
+        } else {
+            if (!startsMonth) {
+                days.sum(firstDay, YearMonth.from(first).atEndOfMonth().toEpochDay(), sum);
+            }
+            months.sum(firstFullMonth, lastFullMonth, sum);
+            if (!endsMonth) {
+                days.sum(last.withDayOfMonth(1).toEpochDay(), lastDay, sum);
+            }
+        }
+
+        return new AnalyticsService.Totals(sum[0], sum[1]);
+    }
+
+    public List<Bucket> getBuckets(@NonNull Period period, @NonNull LocalDate from, @NonNull LocalDate to) {
+        final List<Bucket> result = new ArrayList<>();
+
+        final long first = index(period, from);
+        final long last = index(period, to);
+        for (long index = first; index <= last; index++) {
+            final Buckets buckets = buckets(period);
+            result.add(new Bucket(start(period, index), buckets.income(index), buckets.expenses(index)));
+        }
+
+        return result;
+    }
+
+    // Commands
+    void add(LocalDate date, OperationType type, BigDecimal amount) {
+        if (date == null) {
+            return;
+        }
+
+        final BigDecimal income = type == OperationType.DEPOSIT ? amount : null;
+        final BigDecimal expenses = type == OperationType.WITHDRAWAL ? amount : null;
+
+        days.add(date.toEpochDay(), income, expenses);
+        weeks.add(weekIndex(date), income, expenses);
+        months.add(monthIndex(date), income, expenses);
+    }
+
+    void clear() {
+        days.clear();
+        weeks.clear();
+        months.clear();
+    }
+
+    private Buckets buckets(Period period) {
+        return switch (period) {
+            case DAY -> days;
+            case WEEK -> weeks;
+            case MONTH -> months;
+        };
+    }
+
+    private static long index(Period period, LocalDate date) {
+        return switch (period) {
+            case DAY -> date.toEpochDay();
+            case WEEK -> weekIndex(date);
+            case MONTH -> monthIndex(date);
+        };
+    }
+
+    private static LocalDate start(Period period, long index) {
+        return switch (period) {
+            case DAY -> LocalDate.ofEpochDay(index);
+            case WEEK -> LocalDate.ofEpochDay(index * 7 - EPOCH_WEEK_SHIFT);
+            case MONTH -> monthStart(index);
+        };
+    }
+
+    private static long weekIndex(LocalDate date) {
+        // 1970-01-01 is a Thursday, shift so that every week starts on Monday
+        return Math.floorDiv(date.toEpochDay() + EPOCH_WEEK_SHIFT, 7);
+    }
+
+    private static long monthIndex(LocalDate date) {
+        return (date.getYear() - 1970L) * 12 + date.getMonthValue() - 1;
+    }
+
+    private static LocalDate monthStart(long index) {
+        return LocalDate.of((int) (1970 + Math.floorDiv(index, 12)), Math.floorMod(index, 12) + 1, 1);
+    }
+
+    /**
+     * Pair of growable arrays covering a contiguous range of bucket indexes, null standing for zero.
+     */
+    private static final class Buckets {
+
+        private long base;
+
+        private BigDecimal[] income = new BigDecimal[0];
+
+        private BigDecimal[] expenses = new BigDecimal[0];
+
+        /**
+         * @param incomeDelta   null if there is nothing to add
+         * @param expensesDelta null if there is nothing to add
+         */
+        void add(long index, BigDecimal incomeDelta, BigDecimal expensesDelta) {
+            ensureCovered(index);
+            final int position = (int) (index - base);
+            income[position] = add(income[position], incomeDelta);
+            expenses[position] = add(expenses[position], expensesDelta);
+        }
+
+        BigDecimal income(long index) {
+            return contains(index) ? valueOf(income[(int) (index - base)]) : BigDecimal.ZERO;
+        }
+
+        BigDecimal expenses(long index) {
+            return contains(index) ? valueOf(expenses[(int) (index - base)]) : BigDecimal.ZERO;
+        }
+
+        // the covered range, empty (first > last) before anything is added
+        long first() {
+            return income.length == 0 ? Long.MAX_VALUE : base;
+        }
+
+        long last() {
+            return income.length == 0 ? Long.MIN_VALUE : base + income.length - 1;
+        }
+
+        void sum(long from, long to, BigDecimal[] result) {
+            final long first = Math.max(from, base);
+            final long last = Math.min(to, base + income.length - 1);
+            for (long index = first; index <= last; index++) {
+                result[0] = add(result[0], income[(int) (index - base)]);
+                result[1] = add(result[1], expenses[(int) (index - base)]);
+            }
+        }
+
+        void clear() {
+            base = 0;
+            income = new BigDecimal[0];
+            expenses = new BigDecimal[0];
+        }
+
+        private boolean contains(long index) {
+            return index >= base && index < base + income.length;
+        }
+
+        private void ensureCovered(long index) {
+            if (income.length == 0) {
+                base = index;
+                income = new BigDecimal[1];
+                expenses = new BigDecimal[1];
+                return;
+            }
+            if (contains(index)) {
+                return;
+            }
+
+            final long first = Math.min(base, index);
+            final long last = Math.max(base + income.length - 1, index);
+            final int length = Math.toIntExact(Math.max(last - first + 1, income.length * 2L));
+            final long newBase = index < base ? last - length + 1 : first;
+
+            income = grow(income, length, (int) (base - newBase));
+            expenses = grow(expenses, length, (int) (base - newBase));
+            base = newBase;
+        }
+
+        private static BigDecimal add(BigDecimal value, BigDecimal delta) {
+            if (delta == null) {
+                return value;
+            }
+            return value == null ? delta : value.add(delta);
+        }
+
+        private static BigDecimal valueOf(BigDecimal value) {
+            return value == null ? BigDecimal.ZERO : value;
+        }
+
+        private static BigDecimal[] grow(BigDecimal[] values, int length, int offset) {
+            final BigDecimal[] grown = new BigDecimal[length];
+            System.arraycopy(values, 0, grown, offset, values.length);
+            return grown;
+        }
+
+    }
+
+}
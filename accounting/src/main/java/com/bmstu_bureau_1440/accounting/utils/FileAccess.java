@@ -0,0 +1,91 @@
+package com.bmstu_bureau_1440.accounting.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.NonNull;
+
+/**
+ * Opens files and reports inaccessible ones with the messages of {@link PathAccessCheckAspect}.
+ * The check is the open itself: nothing is asked of the file system beforehand, and a file
+ * removed between a check and the open can't slip through.
+ */
+public final class FileAccess {
+
+    private FileAccess() {
+    }
+
+    public static InputStream newInputStream(@NonNull Path file) throws IOException {
+        return openForReading(file, () -> Files.newInputStream(file));
+    }
+
+    public static BufferedReader newBufferedReader(@NonNull Path file) throws IOException {
+        return openForReading(file, () -> Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    public static FileChannel openForReading(@NonNull Path file) throws IOException {
+        return openForReading(file, () -> FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    public static OutputStream newOutputStream(@NonNull Path file) throws IOException {
+        return openForWriting(file, () -> Files.newOutputStream(file));
+    }
+
+    public static BufferedWriter newBufferedWriter(@NonNull Path file) throws IOException {
+        return openForWriting(file, () -> Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same as {@link Files#createDirectories}, but a directory that can't be created is reported
+     * as a location that can't be written into.
+     */
+    public static Path createDirectories(@NonNull Path directory) throws IOException {
+        return openForWriting(directory, () -> Files.createDirectories(directory));
+    }
+
+    /**
+     * Same as {@link Files#createTempDirectory(Path, String, java.nio.file.attribute.FileAttribute[])},
+     * creating {@code parent} first if needed; failures are reported as by {@link #createDirectories}.
+     */
+    public static Path createTempDirectory(@NonNull Path parent, @NonNull String prefix) throws IOException {
+        createDirectories(parent);
+        return openForWriting(parent, () -> Files.createTempDirectory(parent, prefix));
+    }
+
+    @FunctionalInterface
+    private interface Open<T> {
+
+        T open() throws IOException;
+
+    }
+
+    private static <T> T openForReading(Path file, Open<T> open) throws IOException {
+        try {
+            return open.open();
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("File doesn't exist: " + file, e);
+        } catch (AccessDeniedException e) {
+            throw new IllegalArgumentException("File is not readable: " + file, e);
+        }
+    }
+
+    // a missing parent directory fails with NoSuchFileException, a read-only one with AccessDeniedException
+    private static <T> T openForWriting(Path path, Open<T> open) throws IOException {
+        try {
+            return open.open();
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            throw new IllegalArgumentException("Cannot write into the specified location: " + path, e);
+        }
+    }
+
+}
@@ -2,15 +2,43 @@ package com.bmstu_bureau_1440.accounting.utils;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.stereotype.Component;
 
+import com.bmstu_bureau_1440.accounting.models.Compression;
+
+/**
+ * Checks the paths passed to methods annotated with {@link CheckIfReadable} and
+ * {@link CheckIfWritable} before the call. The serializers open their files through
+ * {@link FileAccess}, which reports the same errors on the open itself, so the aspect is off by
+ * default: it costs a proxy call and extra file system calls per file. Enable it with
+ * {@code -D}{@value #ENABLED_PROPERTY}{@code =true} to have every file checked up front,
+ * before anything is read or written.
+ */
 @Aspect
 @Component
+@Conditional(PathAccessCheckAspect.EnabledCondition.class)
 public class PathAccessCheckAspect {
 
+    public static final String ENABLED_PROPERTY = "accounting.path-checks";
+
+    static final class EnabledCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment().getProperty(ENABLED_PROPERTY, Boolean.class, false);
+        }
+
+    }
+
     @Before("@annotation(checkIfWritable) && args(.., path)")
     public void validateIfWritable(CheckIfWritable checkIfWritable, Path path) {
         Path parent = path.toAbsolutePath().getParent();
@@ -20,11 +48,17 @@ public class PathAccessCheckAspect {
     }
 
     @Before("@annotation(checkIfReadable) && args(.., path)")
-    public void validateIfReadable(CheckIfReadable checkIfReadable, Path path) {
+    public void validateIfReadable(JoinPoint joinPoint, CheckIfReadable checkIfReadable, Path path) {
         final String[] filenames = checkIfReadable.filenames();
+        // compressed files carry the extension of the codec passed alongside the path
+        final String extension = Arrays.stream(joinPoint.getArgs())
+                .filter(Compression.class::isInstance)
+                .map(argument -> ((Compression) argument).getExtension())
+                .findFirst()
+                .orElse("");
 
         for (String filename : filenames) {
-            var pathToFile = path.resolve(filename);
+            var pathToFile = path.resolve(filename + extension);
 
             if (!Files.exists(pathToFile))
                 throw new IllegalArgumentException("File doesn't exist: " + pathToFile);
@@ -0,0 +1,131 @@
+package com.bmstu_bureau_1440.accounting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SlottedListTests {
+
+    private SlottedList<String> list;
+
+    @BeforeEach
+    void setUp() {
+        list = new SlottedList<>(Function.identity());
+    }
+
+    @Test
+    @DisplayName("Should find entities by id and reject duplicates")
+    void addAndGet() {
+        assertTrue(list.add("a"), "New entity should be added");
+        assertTrue(list.add("b"), "New entity should be added");
+        assertFalse(list.add("a"), "Duplicate id should not be added");
+
+        assertEquals(2, list.size(), "Duplicate should not be counted");
+        assertEquals("b", list.get("b"), "Entity should be found by id");
+        assertNull(list.get("c"), "Unknown id should not be found");
+        assertEquals(List.of("a", "b"), list.asList(), "View should keep insertion order");
+    }
+
+    @Test
+    @DisplayName("Should skip removed entities when read by position")
+    void readByPositionAfterRemove() {
+        IntStream.range(0, 10).forEach(i -> list.add("e" + i));
+
+        assertEquals("e3", list.remove("e3"), "Removed entity should be returned");
+        assertNull(list.remove("e3"), "Entity should be removed only once");
+        list.remove("e0");
+        list.remove("e9");
+
+        final List<String> expected = List.of("e1", "e2", "e4", "e5", "e6", "e7", "e8");
+        assertEquals(expected.size(), list.asList().size(), "Size should not count removed entities");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), list.asList().get(i), "Position " + i + " should skip removed entities");
+        }
+        assertEquals(expected, new ArrayList<>(list.asList()), "Iteration should skip removed entities");
+        assertThrows(IndexOutOfBoundsException.class, () -> list.asList().get(expected.size()),
+                "Position past the live entities should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should keep order and lookups after the empty slots are dropped")
+    void compactAfterManyRemoves() {
+        IntStream.range(0, 10_000).forEach(i -> list.add("e" + i));
+
+        IntStream.range(0, 10_000).filter(i -> i % 3 != 0).forEach(i -> list.remove("e" + i));
+        list.add("last");
+
+        final List<String> expected = new ArrayList<>(IntStream.range(0, 10_000).filter(i -> i % 3 == 0)
+                .mapToObj(i -> "e" + i).toList());
+        expected.add("last");
+        assertEquals(expected, list.asList(), "View should keep insertion order");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), list.asList().get(i), "Position " + i + " should be kept");
+            assertEquals(expected.get(i), list.get(expected.get(i)), "Entity should be found by id");
+        }
+    }
+
+    @Test
+    @DisplayName("Should be readable by position from several threads after a remove")
+    void concurrentReadsAfterRemove() throws Exception {
+        IntStream.range(0, 20_000).forEach(i -> list.add("e" + i));
+        IntStream.range(0, 1_000).forEach(i -> list.remove("e" + (i * 20)));
+        final List<String> expected = new ArrayList<>(list.asList());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<List<String>>> parts = new ArrayList<>();
+            final int partSize = expected.size() / 8;
+            for (int part = 0; part < 8; part++) {
+                final int from = part * partSize;
+                final int to = part == 7 ? expected.size() : from + partSize;
+                parts.add(executor.submit(() -> {
+                    final List<String> read = new ArrayList<>();
+                    final List<String> subList = list.asList().subList(from, to);
+                    for (int i = 0; i < subList.size(); i++) {
+                        read.add(subList.get(i));
+                    }
+                    return read;
+                }));
+            }
+
+            final List<String> read = new ArrayList<>();
+            for (Future<List<String>> part : parts) {
+                read.addAll(part.get());
+            }
+            assertEquals(expected, read, "Parts read in parallel should add up to the view");
+        } finally {
+            executor.shutdown();
+        }
+        IntStream.range(1, 20).forEach(i -> assertEquals("e" + i, list.get("e" + i), "Lookups should be intact"));
+    }
+
+    @Test
+    @DisplayName("Should fail iteration when the list is changed")
+    void iteratorDetectsChanges() {
+        list.add("a");
+        list.add("b");
+
+        final var iterator = list.asList().iterator();
+        iterator.next();
+        list.remove("b");
+
+        assertThrows(ConcurrentModificationException.class, iterator::next,
+                "Iterator should detect the removal");
+    }
+
+}
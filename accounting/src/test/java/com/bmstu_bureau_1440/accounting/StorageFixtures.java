@@ -0,0 +1,62 @@
+package com.bmstu_bureau_1440.accounting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+
+/**
+ * Storages with deterministic content for the serializer and journal tests.
+ */
+public final class StorageFixtures {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 30, 15, 123_456_789);
+
+    private StorageFixtures() {
+    }
+
+    public static Storage storage(int operations) {
+        final Random random = new Random(operations);
+        final Storage storage = new Storage(null, null, null);
+
+        final List<BankAccount> accounts = List.of(
+                new BankAccount(UUID.randomUUID().toString(), "Wallet", new BigDecimal("100.50")),
+                new BankAccount(UUID.randomUUID().toString(), "Card, \"main\"", new BigDecimal("0")),
+                new BankAccount("legacy-account", "Сбережения", new BigDecimal("12345678901234.99")));
+        final List<Category> categories = List.of(
+                new Category(UUID.randomUUID().toString(), OperationType.DEPOSIT, "Salary"),
+                new Category(UUID.randomUUID().toString(), OperationType.WITHDRAWAL, "Food"),
+                new Category("legacy-category", OperationType.WITHDRAWAL, "Rent"));
+        accounts.forEach(storage::addAccount);
+        categories.forEach(storage::addCategory);
+
+        for (int i = 0; i < operations; i++) {
+            final Category category = categories.get(random.nextInt(categories.size()));
+            final BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(3));
+            storage.addOperation(new Operation(UUID.randomUUID().toString(),
+                    accounts.get(random.nextInt(accounts.size())).getId(),
+                    category.getId(),
+                    category.getType() == OperationType.WITHDRAWAL ? amount.negate() : amount,
+                    START.plusSeconds(random.nextInt(365 * 24 * 3600)).plusNanos(i),
+                    i % 10 == 0 ? "Operation " + i + ", \"quoted\"" : "Operation " + i));
+        }
+        return storage;
+    }
+
+    public static void assertSameContent(Storage expected, Storage actual) {
+        assertEquals(expected.getAccounts(), actual.getAccounts(), "Accounts should be the same");
+        assertEquals(expected.getCategories(), actual.getCategories(), "Categories should be the same");
+        assertEquals(expected.getOperations().size(), actual.getOperations().size(),
+                "Number of operations should be the same");
+        assertEquals(expected.getOperations(), actual.getOperations(), "Operations should be the same, in order");
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.StorageFixtures;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+public class BinaryStorageSerializerTests {
+
+    @TempDir
+    private Path directory;
+
+    private final BinaryStorageSerializer serializer = new BinaryStorageSerializer();
+
+    @Test
+    @DisplayName("Should read back accounts, categories and operations in order")
+    void roundTrip() throws Exception {
+        final Storage storage = StorageFixtures.storage(20_000);
+
+        serializer.serialize(storage, directory);
+
+        StorageFixtures.assertSameContent(storage, serializer.deserialize(directory));
+    }
+
+    @Test
+    @DisplayName("Should read back an empty storage")
+    void roundTripEmpty() throws Exception {
+        final Storage storage = new Storage(null, null, null);
+
+        serializer.serialize(storage, directory);
+
+        StorageFixtures.assertSameContent(storage, serializer.deserialize(directory));
+    }
+
+    @Test
+    @DisplayName("Should keep null fields and extreme amounts and dates")
+    void roundTripEdgeValues() throws Exception {
+        final Storage storage = new Storage(null, null, null);
+        storage.addAccount(new BankAccount("account", null, null));
+        storage.addCategory(new Category("category", null, null));
+        storage.addOperation(new Operation("no-date", "account", "category", new BigDecimal("-0.000000001"), null,
+                null));
+        storage.addOperation(new Operation("largest", "account", "category", BigDecimal.valueOf(Long.MAX_VALUE, 2),
+                LocalDateTime.of(1900, 1, 1, 0, 0, 0, 999_999_999), ""));
+        storage.addOperation(new Operation("no-amount", "account", "unknown-category", null,
+                LocalDateTime.of(2100, 12, 31, 23, 59, 59), "Описание"));
+
+        serializer.serialize(storage, directory);
+
+        StorageFixtures.assertSameContent(storage, serializer.deserialize(directory));
+    }
+
+    @Test
+    @DisplayName("Should reject amounts that do not fit into the format")
+    void rejectLargeAmounts() {
+        final Storage storage = new Storage(null, null, null);
+        storage.addOperation(new Operation("huge", "account", "category",
+                new BigDecimal("92233720368547758.08"), null, ""));
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.serialize(storage, directory),
+                "Amount beyond a long should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should reject files of another format")
+    void rejectForeignFiles() throws Exception {
+        Files.writeString(directory.resolve("accounting.bin"), "{\"operations\": []}");
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.deserialize(directory),
+                "File without the magic number should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should fail on a truncated file")
+    void rejectTruncatedFiles() throws Exception {
+        serializer.serialize(StorageFixtures.storage(1_000), directory);
+        final Path file = directory.resolve("accounting.bin");
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(RuntimeException.class, () -> serializer.deserialize(directory),
+                "Truncated file should not be read");
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.StorageFixtures;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+public class CsvStorageSerializerTests {
+
+    @TempDir
+    private Path directory;
+
+    private ExecutorService ioExecutor;
+
+    private CsvStorageSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        ioExecutor = Executors.newFixedThreadPool(2);
+        serializer = new CsvStorageSerializer(new CsvSerializer(new CodecRegistry()), ioExecutor);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ioExecutor.shutdownNow();
+        ioExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Compression.class)
+    @DisplayName("Should read back the parts written in parallel, in order")
+    void roundTrip(Compression compression) throws Exception {
+        // more than one chunk per part
+        final Storage storage = StorageFixtures.storage(50_000);
+
+        serializer.serialize(storage, compression, directory);
+
+        for (int part = 0; part < 4; part++) {
+            assertTrue(Files.exists(directory.resolve("operations-" + part + ".csv" + compression.getExtension())),
+                    "Part " + part + " should be written");
+        }
+        StorageFixtures.assertSameContent(storage, serializer.deserialize(compression, directory));
+    }
+
+    @Test
+    @DisplayName("Should read back fewer operations than parts")
+    void roundTripWithEmptyParts() throws Exception {
+        final Storage storage = StorageFixtures.storage(2);
+
+        serializer.serialize(storage, directory);
+
+        StorageFixtures.assertSameContent(storage, serializer.deserialize(directory));
+    }
+
+    @Test
+    @DisplayName("Should read the single operations file of older exports")
+    void readSingleFileLayout() throws Exception {
+        final Storage storage = StorageFixtures.storage(1_000);
+        serializer.serialize(storage, directory);
+        final Path legacyDirectory = Files.createDirectory(directory.resolve("legacy"));
+        for (String file : new String[] { "accounts.csv", "categories.csv" }) {
+            Files.copy(directory.resolve(file), legacyDirectory.resolve(file));
+        }
+        final CsvSerializer csvSerializer = new CsvSerializer(new CodecRegistry());
+        csvSerializer.serialize(storage.getOperations(), Operation.class, Compression.NONE,
+                legacyDirectory.resolve("operations.csv"));
+
+        StorageFixtures.assertSameContent(storage, serializer.deserialize(legacyDirectory));
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("Should fail without hanging when a part cannot be read")
+    void corruptPart() throws Exception {
+        serializer.serialize(StorageFixtures.storage(50_000), directory);
+        Files.writeString(directory.resolve("operations-1.csv"), "id,amount\n\"unterminated");
+
+        assertThrows(Exception.class, () -> serializer.deserialize(directory),
+                "Corrupt part should fail the import");
+        // the readers of the other parts are cancelled and give the threads back
+        final Storage storage = StorageFixtures.storage(10);
+        StorageFixtures.assertSameContent(storage, exportAndImport(storage));
+    }
+
+    private Storage exportAndImport(Storage storage) throws Exception {
+        final Path other = Files.createDirectories(directory.resolve("other"));
+        serializer.serialize(storage, other);
+        return serializer.deserialize(other);
+    }
+
+}
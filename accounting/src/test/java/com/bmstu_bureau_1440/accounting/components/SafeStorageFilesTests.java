@@ -0,0 +1,169 @@
+package com.bmstu_bureau_1440.accounting.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.StorageFixtures;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+
+public class SafeStorageFilesTests {
+
+    @TempDir
+    private Path directory;
+
+    private ExecutorService ioExecutor;
+
+    private CsvStorageSerializer csvSerializer;
+
+    private final BinaryStorageSerializer binarySerializer = new BinaryStorageSerializer();
+
+    private final SafeStorageFiles safeStorageFiles = new SafeStorageFiles();
+
+    @BeforeEach
+    void setUp() {
+        ioExecutor = Executors.newFixedThreadPool(2);
+        csvSerializer = new CsvStorageSerializer(new CsvSerializer(new CodecRegistry()), ioExecutor);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ioExecutor.shutdownNow();
+        ioExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should read back every format exported into the same directory")
+    void roundTrip() throws Exception {
+        final Storage storage = StorageFixtures.storage(5_000);
+
+        safeStorageFiles.export(csvSerializer, storage, directory);
+        safeStorageFiles.export(csvSerializer, storage, Compression.GZIP, directory);
+        safeStorageFiles.export(binarySerializer, storage, directory);
+
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(csvSerializer, directory));
+        StorageFixtures.assertSameContent(storage,
+                safeStorageFiles.restore(csvSerializer, Compression.GZIP, directory));
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(binarySerializer, directory));
+    }
+
+    @Test
+    @DisplayName("Should replace the previous export with fewer parts entirely")
+    void replacePreviousExport() throws Exception {
+        safeStorageFiles.export(csvSerializer, StorageFixtures.storage(5_000), directory);
+        final Storage storage = StorageFixtures.storage(2);
+
+        safeStorageFiles.export(csvSerializer, storage, directory);
+
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(csvSerializer, directory));
+        assertEquals(List.of("csv.current", "csv.export-"), listExports(),
+                "Only the pointer and the current export should be left");
+    }
+
+    @Test
+    @DisplayName("Should reject a file that doesn't match its checksum")
+    void rejectCorruptedFiles() throws Exception {
+        safeStorageFiles.export(binarySerializer, StorageFixtures.storage(1_000), directory);
+        final Path file = exportDirectory("binary").resolve("accounting.bin");
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IllegalStateException.class, () -> safeStorageFiles.restore(binarySerializer, directory),
+                "Corrupted file should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should keep the previous export readable when a new one fails")
+    void keepPreviousExportOnFailure() throws Exception {
+        final Storage storage = StorageFixtures.storage(5_000);
+        safeStorageFiles.export(csvSerializer, storage, directory);
+        // writes part of the files, as an export interrupted by a crash
+        final StorageSerializer failingSerializer = new CsvStorageSerializer(new CsvSerializer(new CodecRegistry()),
+                ioExecutor) {
+
+            @Override
+            public void serialize(Storage object, Compression compression, LongConsumer rowsWritten, Path path)
+                    throws Exception {
+                super.serialize(StorageFixtures.storage(10), compression, rowsWritten, path);
+                Files.delete(path.resolve("operations-2.csv"));
+                throw new IllegalStateException("Disk is full");
+            }
+
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> safeStorageFiles.export(failingSerializer, StorageFixtures.storage(10), directory));
+
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(csvSerializer, directory));
+        assertEquals(List.of("csv.current", "csv.export-"), listExports(), "Failed export should be cleaned up");
+    }
+
+    @Test
+    @DisplayName("Should ignore a complete export that the pointer doesn't name yet")
+    void ignoreUnpublishedExport() throws Exception {
+        final Storage storage = StorageFixtures.storage(1_000);
+        safeStorageFiles.export(csvSerializer, storage, directory);
+        // renamed, but the crash came before the pointer was replaced
+        final Path unpublished = Files.createDirectory(directory.resolve("csv.export-unpublished"));
+        csvSerializer.serialize(StorageFixtures.storage(10), unpublished);
+
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(csvSerializer, directory));
+
+        final Storage next = StorageFixtures.storage(20);
+        safeStorageFiles.export(csvSerializer, next, directory);
+        StorageFixtures.assertSameContent(next, safeStorageFiles.restore(csvSerializer, directory));
+        assertEquals(List.of("csv.current", "csv.export-"), listExports(), "Unpublished export should be deleted");
+    }
+
+    @Test
+    @DisplayName("Should read and then replace an export written in place by an older version")
+    void readLegacyLayout() throws Exception {
+        final Storage storage = StorageFixtures.storage(1_000);
+        csvSerializer.serialize(storage, directory);
+        final StringBuilder manifest = new StringBuilder();
+        for (String file : listExports()) {
+            final byte[] bytes = Files.readAllBytes(directory.resolve(file));
+            final CRC32C crc = new CRC32C();
+            crc.update(bytes);
+            manifest.append("%08x %d %s%n".formatted(crc.getValue(), bytes.length, file));
+        }
+        Files.writeString(directory.resolve("csv.checksums"), manifest);
+
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(csvSerializer, directory));
+
+        safeStorageFiles.export(csvSerializer, storage, directory);
+        assertEquals(List.of("csv.current", "csv.export-"), listExports(), "Files of the old layout should be deleted");
+        StorageFixtures.assertSameContent(storage, safeStorageFiles.restore(csvSerializer, directory));
+    }
+
+    private Path exportDirectory(String format) throws Exception {
+        return directory.resolve(Files.readString(directory.resolve(format + ".current")));
+    }
+
+    // exports are named by a random id, which is cut off
+    private List<String> listExports() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString().replaceAll("(\\.export-).*", "$1"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.bmstu_bureau_1440.accounting.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.StorageFixtures;
+import com.bmstu_bureau_1440.accounting.components.BinaryStorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+import com.bmstu_bureau_1440.accounting.services.AccountsService;
+import com.bmstu_bureau_1440.accounting.services.CategoriesService;
+import com.bmstu_bureau_1440.accounting.services.OperationsService;
+
+public class ChangeLogRepositoryTests {
+
+    private record Services(Storage storage, ChangeLogRepository repository, AccountsService accountsService,
+            CategoriesService categoriesService, OperationsService operationsService) {
+    }
+
+    @TempDir
+    private Path directory;
+
+    private ExecutorService ioExecutor;
+
+    @BeforeEach
+    void setUp() {
+        ioExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ioExecutor.shutdownNow();
+        ioExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should restore the changes logged before a restart")
+    void restoreAfterRestart() {
+        final Services services = restored(directory);
+        final BankAccount wallet = services.accountsService().addNewBankAccount("Wallet", new BigDecimal("100"));
+        final Category salary = services.categoriesService().addNewCategory("Salary", OperationType.DEPOSIT);
+        final Category food = services.categoriesService().addNewCategory("Food", OperationType.WITHDRAWAL);
+        services.operationsService().addNewOperation(wallet.getId(), salary.getId(), new BigDecimal("20.50"),
+                "Salary, \"March\"");
+        final Operation lunch = services.operationsService().addNewOperation(wallet.getId(), food.getId(),
+                new BigDecimal("7"), "Lunch");
+        services.operationsService().updateDescription(lunch, "Dinner");
+        services.accountsService().renameAccount(wallet, "Main");
+
+        StorageFixtures.assertSameContent(services.storage(), restored(directory).storage());
+    }
+
+    @Test
+    @DisplayName("Should restore whole batches only when the log is cut after any record")
+    void replayCutLog() throws Exception {
+        final Services services = restored(directory);
+        final BankAccount wallet = services.accountsService().addNewBankAccount("Wallet", new BigDecimal("100"));
+        final BankAccount card = services.accountsService().addNewBankAccount("Card", new BigDecimal("50"));
+        final Category salary = services.categoriesService().addNewCategory("Salary", OperationType.DEPOSIT);
+        final Category food = services.categoriesService().addNewCategory("Food", OperationType.WITHDRAWAL);
+        final Map<String, BigDecimal> initialBalances = Map.of(wallet.getId(), new BigDecimal("100"),
+                card.getId(), new BigDecimal("50"));
+
+        final OperationsService operationsService = services.operationsService();
+        final Operation first = operationsService.addNewOperation(wallet.getId(), salary.getId(),
+                new BigDecimal("10"), "first");
+        operationsService.addOperations(Stream.of(
+                new OperationsService.NewOperation(card.getId(), food.getId(), new BigDecimal("5"), null, "second"),
+                new OperationsService.NewOperation(wallet.getId(), food.getId(), new BigDecimal("30"), null, "third"),
+                new OperationsService.NewOperation(card.getId(), salary.getId(), new BigDecimal("1"), null, "fourth")));
+        operationsService.deleteOperation(first);
+        operationsService.addNewOperation(card.getId(), food.getId(), new BigDecimal("40"), "fifth");
+
+        final List<String> lines = Files.readAllLines(directory.resolve("changes-0.log"), StandardCharsets.UTF_8);
+        final List<Integer> restoredOperations = new ArrayList<>();
+        for (int records = 0; records <= lines.size(); records++) {
+            final Storage whole = restoredFrom(lines.subList(0, records), "");
+            assertConsistent(initialBalances, whole, records + " records");
+            final int operations = whole.getOperations().size();
+            if (restoredOperations.isEmpty() || restoredOperations.getLast() != operations) {
+                restoredOperations.add(operations);
+            }
+
+            if (records < lines.size()) {
+                final String record = lines.get(records);
+                final Storage torn = restoredFrom(lines.subList(0, records), record.substring(0, record.length() / 2));
+                StorageFixtures.assertSameContent(whole, torn);
+            }
+        }
+
+        // accounts and categories, then every batch at once
+        assertEquals(List.of(0, 1, 4, 3, 4), restoredOperations, "Every batch should be restored as a whole");
+        StorageFixtures.assertSameContent(services.storage(), restoredFrom(lines, ""));
+    }
+
+    @Test
+    @DisplayName("Should write a snapshot once the log is long and restore it with the rest of the log")
+    void compaction() throws Exception {
+        final Services services = restored(directory);
+        final BankAccount wallet = services.accountsService().addNewBankAccount("Wallet", new BigDecimal("100"));
+        final Category salary = services.categoriesService().addNewCategory("Salary", OperationType.DEPOSIT);
+
+        services.operationsService().addOperations(IntStream.range(0, 10_000)
+                .mapToObj(i -> new OperationsService.NewOperation(wallet.getId(), salary.getId(),
+                        new BigDecimal("1.5"), null, "Operation " + i)));
+        ioExecutor.submit(() -> {
+        }).get();
+        services.operationsService().addNewOperation(wallet.getId(), salary.getId(), BigDecimal.ONE, "After");
+
+        assertNull(services.repository().getCompactionFailure(), "Snapshot should be written");
+        assertTrue(Files.isDirectory(directory.resolve("snapshot-1")), "Snapshot should be written");
+        assertFalse(Files.exists(directory.resolve("changes-0.log")), "Log covered by the snapshot should be deleted");
+        assertEquals(4, Files.readAllLines(directory.resolve("changes-1.log")).size(),
+                "New log should only have the batch after the snapshot");
+        StorageFixtures.assertSameContent(services.storage(), restored(directory).storage());
+    }
+
+    private Services restored(Path journalPath) {
+        final Storage storage = new Storage(null, null, null);
+        final ChangeLogRepository[] repository = new ChangeLogRepository[1];
+        final ApplicationEventPublisher eventPublisher = event -> {
+            storage.onStorageEvent((StorageEvent) event);
+            repository[0].onStorageEvent((StorageEvent) event);
+        };
+        repository[0] = new ChangeLogRepository(List.of(new BinaryStorageSerializer()), new SafeStorageFiles(),
+                storage, eventPublisher, ioExecutor);
+        repository[0].journalPath = journalPath;
+        repository[0].restore();
+
+        final AccountsService accountsService = new AccountsService(storage, eventPublisher);
+        final CategoriesService categoriesService = new CategoriesService(storage, eventPublisher);
+        return new Services(storage, repository[0], accountsService, categoriesService,
+                new OperationsService(storage, accountsService, categoriesService, eventPublisher, repository[0]));
+    }
+
+    private Storage restoredFrom(List<String> records, String tornRecord) throws Exception {
+        final Path journalPath = Files.createTempDirectory(directory, "cut-");
+        final StringBuilder log = new StringBuilder();
+        records.forEach(record -> log.append(record).append('\n'));
+        Files.writeString(journalPath.resolve("changes-0.log"), log.append(tornRecord), StandardCharsets.UTF_8);
+        return restored(journalPath).storage();
+    }
+
+    private static void assertConsistent(Map<String, BigDecimal> initialBalances, Storage storage, String message) {
+        final Map<String, BigDecimal> balances = new HashMap<>();
+        storage.getAccounts().forEach(account -> balances.put(account.getId(), initialBalances.get(account.getId())));
+        storage.getOperations().forEach(operation -> balances.merge(operation.getBankAccountId(),
+                operation.getAmount(), BigDecimal::add));
+        storage.getAccounts().forEach(account -> assertEquals(0,
+                balances.get(account.getId()).compareTo(account.getBalance()),
+                "Balance of " + account.getName() + " should match its operations after " + message));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.StorageFixtures;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
+import com.bmstu_bureau_1440.accounting.models.Compression;
+import com.bmstu_bureau_1440.accounting.models.FileType;
+import com.bmstu_bureau_1440.accounting.repositories.FileStorageRepository;
+
+public class ExportSchedulerTests {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile Error exportError;
+
+    private ExportScheduler exportScheduler;
+
+    @BeforeEach
+    void setUp() {
+        final Storage storage = StorageFixtures.storage(10);
+        // writes the accounts, then waits until released; the last format requested finishes the test
+        final FileStorageRepository repository = new FileStorageRepository(List.of(), new SafeStorageFiles(),
+                storage, event -> {
+                }) {
+
+            @Override
+            public void exportToFile(FileType fileType, Compression compression, Storage source,
+                    LongConsumer rowsWritten) {
+                try {
+                    rowsWritten.accept(source.getAccounts().size());
+                    started.countDown();
+                    released.await();
+                    if (exportError != null) {
+                        throw exportError;
+                    }
+                    rowsWritten.accept(source.getCategories().size() + source.getOperations().size());
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    if (fileType == FileType.YAML) {
+                        finished.countDown();
+                    }
+                }
+            }
+
+        };
+        exportScheduler = new ExportScheduler(storage, repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportScheduler.close();
+    }
+
+    @Test
+    @DisplayName("Should keep a status per format with the rows written so far")
+    void statusPerFormat() throws Exception {
+        exportScheduler.requestExport(FileType.CSV);
+        assertTrue(started.await(10, TimeUnit.SECONDS), "Export should start");
+
+        exportScheduler.requestExport(FileType.YAML);
+        exportScheduler.requestExport(FileType.CSV);
+
+        assertEquals(new ExportScheduler.Status(ExportScheduler.State.RUNNING, FileType.CSV, null, 3, 16),
+                exportScheduler.getStatus(FileType.CSV), "Queuing another export should not hide the running one");
+        assertEquals(ExportScheduler.State.QUEUED, exportScheduler.getStatus(FileType.YAML).state(),
+                "Other format should be queued");
+        assertEquals(ExportScheduler.State.IDLE, exportScheduler.getStatus(FileType.JSON).state(),
+                "Format that was not requested should be idle");
+        assertEquals("Exporting CSV... 3 of 16 rows", exportScheduler.getStatuses().get(0).describe());
+
+        released.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS), "Exports should finish");
+        awaitState(FileType.YAML, ExportScheduler.State.DONE);
+        // the second CSV export runs after the YAML one
+        awaitState(FileType.CSV, ExportScheduler.State.DONE);
+
+        assertEquals(List.of(FileType.CSV, FileType.YAML),
+                exportScheduler.getStatuses().stream().map(ExportScheduler.Status::fileType).toList(),
+                "Only the requested formats should have statuses");
+    }
+
+    @Test
+    @DisplayName("Should report failed exports, including errors")
+    void failedExports() throws Exception {
+        exportError = new OutOfMemoryError("Java heap space");
+        released.countDown();
+
+        exportScheduler.requestExport(FileType.YAML);
+        assertTrue(finished.await(10, TimeUnit.SECONDS), "Export should finish");
+        awaitState(FileType.YAML, ExportScheduler.State.FAILED);
+
+        assertEquals("Export of YAML failed: Java heap space", exportScheduler.getStatus(FileType.YAML).describe());
+    }
+
+    // the status is set right after the repository returns
+    private void awaitState(FileType fileType, ExportScheduler.State state) throws InterruptedException {
+        for (int i = 0; i < 1_000 && exportScheduler.getStatus(fileType).state() != state; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(state, exportScheduler.getStatus(fileType).state(), "Export of " + fileType + " should end");
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.StorageFixtures;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+
+public class OperationsIndexTests {
+
+    private static final List<String> WORDS = List.of("Coffee", "shop", "Gym", "tax", "Café", "rent", "2024");
+
+    private final Random random = new Random(7);
+
+    private Storage storage;
+
+    private OperationsIndex operationsIndex;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage(null, null, null);
+        operationsIndex = new OperationsIndex(storage);
+    }
+
+    @Test
+    @DisplayName("Should match the operations of any filter, in storage order")
+    void randomFilters() {
+        for (int i = 0; i < 5_000; i++) {
+            add(randomOperation(i));
+        }
+        for (int i = 0; i < 2_000; i++) {
+            remove(storage.getOperations().get(random.nextInt(storage.getOperations().size())));
+        }
+        for (int i = 0; i < 500; i++) {
+            final Operation operation = storage.getOperations().get(random.nextInt(storage.getOperations().size()));
+            updateDescription(operation, randomDescription());
+        }
+
+        for (int i = 0; i < 300; i++) {
+            final Set<String> accountIds = random.nextBoolean() ? Set.of() : Set.of("account-" + random.nextInt(5));
+            final Set<String> categoryIds = random.nextBoolean() ? Set.of()
+                    : Set.of("category-" + random.nextInt(2), "category-" + (2 + random.nextInt(3)));
+            final String query = random.nextBoolean() ? "" : WORDS.get(random.nextInt(WORDS.size()))
+                    .substring(0, 1 + random.nextInt(2)).toUpperCase() + " " + WORDS.get(random.nextInt(WORDS.size()));
+
+            assertEquals(expected(accountIds, categoryIds, query),
+                    operationsIndex.filter(accountIds, categoryIds, query),
+                    "Operations of " + accountIds + ", " + categoryIds + ", \"" + query + "\"");
+        }
+    }
+
+    @Test
+    @DisplayName("Should not change a returned list when the index changes")
+    void immutableResults() {
+        add(operation("first", "account-1", "Coffee"));
+        final List<Operation> before = operationsIndex.filter(Set.of("account-1"), Set.of());
+
+        add(operation("second", "account-1", "Coffee shop"));
+        remove(storage.findOperationById("first").orElseThrow());
+
+        assertEquals(List.of("first"), before.stream().map(Operation::getId).toList(),
+                "Returned list should not follow the index");
+        assertThrows(UnsupportedOperationException.class, () -> before.add(before.get(0)),
+                "Returned list should be read-only");
+        assertEquals(List.of("second"), operationsIndex.filter(Set.of("account-1"), Set.of()).stream()
+                .map(Operation::getId).toList(), "New result should have the changes");
+    }
+
+    @Test
+    @DisplayName("Should keep the memoized result while the changes don't match the filter")
+    void memoizedResult() {
+        add(operation("first", "account-1", "Coffee"));
+        final List<Operation> result = operationsIndex.filter(Set.of("account-1"), Set.of(), "cof");
+
+        add(operation("second", "account-2", "Coffee"));
+        add(operation("third", "account-1", "Gym"));
+
+        assertSame(result, operationsIndex.filter(Set.of("account-1"), Set.of(), "cof"),
+                "Changes that don't match should keep the result");
+    }
+
+    @Test
+    @DisplayName("Should keep the order and the matches after the slots are rebuilt")
+    void compaction() {
+        final Storage fixture = StorageFixtures.storage(3_000);
+        fixture.getOperations().forEach(this::add);
+        // more empty slots than live ones
+        for (int i = 0; i < 2_000; i++) {
+            remove(storage.getOperations().get(i % 2 == 0 ? 0 : storage.getOperations().size() - 1));
+        }
+        add(operation("last", "legacy-account", "Operation last"));
+
+        assertEquals(storage.getOperations(), operationsIndex.filter(Set.of(), Set.of()),
+                "All live operations should be returned in storage order");
+        assertEquals(expected(Set.of("legacy-account"), Set.of(), "oper \"quoted"),
+                operationsIndex.filter(Set.of("legacy-account"), Set.of(), "oper \"quoted"));
+    }
+
+    @Test
+    @DisplayName("Should rebuild on a reload")
+    void reload() {
+        add(operation("first", "account-1", "Coffee"));
+        operationsIndex.filter(Set.of(), Set.of());
+
+        storage.replaceWith(StorageFixtures.storage(100));
+        operationsIndex.onStorageEvent(new StorageEvent.StorageReloaded());
+
+        assertEquals(storage.getOperations(), operationsIndex.filter(Set.of(), Set.of()),
+                "Index should have the reloaded operations");
+    }
+
+    private List<Operation> expected(Set<String> accountIds, Set<String> categoryIds, String query) {
+        final List<String> terms = OperationsIndex.terms(query);
+        return storage.getOperations().stream()
+                .filter(operation -> accountIds.isEmpty() || accountIds.contains(operation.getBankAccountId()))
+                .filter(operation -> categoryIds.isEmpty() || categoryIds.contains(operation.getCategoryId()))
+                .filter(operation -> OperationsIndex.matchesTerms(OperationsIndex.terms(operation.getDescription()),
+                        terms))
+                .toList();
+    }
+
+    private Operation randomOperation(int i) {
+        return new Operation("operation-" + i, "account-" + random.nextInt(5), "category-" + random.nextInt(5),
+                BigDecimal.ONE, LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i), randomDescription());
+    }
+
+    private String randomDescription() {
+        return random.nextInt(10) == 0 ? null : WORDS.get(random.nextInt(WORDS.size())) + ", "
+                + WORDS.get(random.nextInt(WORDS.size())) + "-" + random.nextInt(100);
+    }
+
+    private static Operation operation(String id, String accountId, String description) {
+        return new Operation(id, accountId, "category", BigDecimal.ONE, LocalDateTime.of(2024, 1, 1, 0, 0),
+                description);
+    }
+
+    private void add(Operation operation) {
+        storage.addOperation(operation);
+        operationsIndex.onStorageEvent(new StorageEvent.OperationAdded(operation));
+    }
+
+    private void remove(Operation operation) {
+        storage.removeOperation(operation);
+        operationsIndex.onStorageEvent(new StorageEvent.OperationDeleted(operation));
+    }
+
+    private void updateDescription(Operation operation, String description) {
+        operation.setDescription(description);
+        operationsIndex.onStorageEvent(new StorageEvent.OperationUpdated(operation));
+    }
+
+}
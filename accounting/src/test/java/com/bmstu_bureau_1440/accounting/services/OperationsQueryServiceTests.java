@@ -0,0 +1,243 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+
+public class OperationsQueryServiceTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final Random random = new Random(11);
+
+    private Storage storage;
+
+    private EntityNamesCache entityNamesCache;
+
+    private OperationsQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage(null, null, null);
+        // two accounts share a name, so groups are ordered by id as well; one has no name
+        storage.addAccount(new BankAccount("account-b", "Wallet", BigDecimal.ZERO));
+        storage.addAccount(new BankAccount("account-a", "Wallet", BigDecimal.ZERO));
+        storage.addAccount(new BankAccount("account-c", "Card", BigDecimal.ZERO));
+        storage.addAccount(new BankAccount("account-d", null, BigDecimal.ZERO));
+        storage.addCategory(new Category("category-a", OperationType.DEPOSIT, "Salary"));
+        storage.addCategory(new Category("category-b", OperationType.WITHDRAWAL, "Food"));
+        storage.addCategory(new Category("category-c", OperationType.WITHDRAWAL, "Rent"));
+        entityNamesCache = new EntityNamesCache(storage);
+        queryService = new OperationsQueryService(storage, entityNamesCache);
+    }
+
+    @ParameterizedTest
+    @EnumSource(OperationsQuery.Sort.class)
+    @DisplayName("Should page through the operations in order, in both directions")
+    void pages(OperationsQuery.Sort sort) {
+        addRandomOperations(500);
+        // so that operations of the deleted category are still listed
+        storage.getCategories().stream().filter(category -> category.getId().equals("category-c")).findFirst()
+                .ifPresent(category -> {
+                    storage.removeCategory(category);
+                    entityNamesCache.onStorageEvent(new StorageEvent.CategoryDeleted(category));
+                });
+
+        for (boolean descending : new boolean[] { false, true }) {
+            for (int limit : new int[] { 1, 7, 100, 1_000 }) {
+                final OperationsQuery query = OperationsQuery.all(sort, descending, limit);
+                assertEquals(expected(query), pageThrough(query), sort + (descending ? " descending" : "")
+                        + " by " + limit);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(OperationsQuery.Sort.class)
+    @DisplayName("Should page through filtered operations")
+    void filteredPages(OperationsQuery.Sort sort) {
+        addRandomOperations(500);
+
+        for (boolean descending : new boolean[] { false, true }) {
+            final OperationsQuery query = new OperationsQuery(Set.of("account-a", "account-c"),
+                    Set.of("category-b", "category-c"), "lun", operation -> operation.getAmount().signum() < 0,
+                    sort, descending, 9);
+            assertEquals(expected(query), pageThrough(query), sort + (descending ? " descending" : ""));
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue with the next group when a page ends with the last operation of a group")
+    void groupBoundaries() {
+        // accounts are ordered Card, Wallet (account-a), Wallet (account-b); pages of 2 end at every boundary
+        final Operation card1 = add("account-c", "category-a", 6);
+        final Operation card2 = add("account-c", "category-b", 7);
+        final Operation wallet1 = add("account-a", "category-b", 1);
+        final Operation wallet2 = add("account-a", "category-a", 2);
+        final Operation wallet3 = add("account-a", "category-b", 3);
+        final Operation otherWallet1 = add("account-b", "category-a", 4);
+        final Operation otherWallet2 = add("account-b", "category-b", 5);
+
+        assertEquals(List.of(List.of(card1, card2), List.of(wallet1, wallet2), List.of(wallet3, otherWallet1),
+                List.of(otherWallet2)), pages(OperationsQuery.all(OperationsQuery.Sort.ACCOUNT, false, 2)),
+                "Ascending pages");
+        assertEquals(List.of(List.of(otherWallet2, otherWallet1), List.of(wallet3, wallet2), List.of(wallet1, card2),
+                List.of(card1)), pages(OperationsQuery.all(OperationsQuery.Sort.ACCOUNT, true, 2)),
+                "Descending pages");
+        // Food, then Salary
+        assertEquals(List.of(List.of(wallet1, wallet3, otherWallet2), List.of(card2, wallet2, otherWallet1),
+                List.of(card1)), pages(OperationsQuery.all(OperationsQuery.Sort.CATEGORY, false, 3)),
+                "Pages by category");
+    }
+
+    @Test
+    @DisplayName("Should continue after a cursor whose operation has since been deleted")
+    void deletedCursor() {
+        addRandomOperations(200);
+
+        for (OperationsQuery.Sort sort : OperationsQuery.Sort.values()) {
+            for (boolean descending : new boolean[] { false, true }) {
+                final OperationsQuery query = OperationsQuery.all(sort, descending, 10);
+                final OperationsQueryService.Page first = queryService.query(query, null);
+                final Operation last = first.next().last();
+                final List<Operation> expected = expected(query);
+                final List<Operation> rest = expected.subList(expected.indexOf(last) + 1, expected.size());
+
+                remove(last);
+
+                assertEquals(rest, pageThrough(query, first.next()), sort + (descending ? " descending" : ""));
+                add(last);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue after a cursor whose whole group has since been deleted")
+    void deletedGroup() {
+        addRandomOperations(100);
+        final Operation only = add("account-e", "category-e", 1_000);
+
+        for (OperationsQuery.Sort sort : List.of(OperationsQuery.Sort.ACCOUNT, OperationsQuery.Sort.CATEGORY)) {
+            for (boolean descending : new boolean[] { false, true }) {
+                final OperationsQuery query = OperationsQuery.all(sort, descending, 1);
+                final List<Operation> expected = expected(query);
+                final OperationsQueryService.Cursor cursor = new OperationsQueryService.Cursor(only);
+                final List<Operation> rest = new ArrayList<>(expected.subList(expected.indexOf(only) + 1,
+                        expected.size()));
+
+                remove(only);
+
+                assertEquals(rest, pageThrough(query, cursor), sort + (descending ? " descending" : ""));
+                add(only);
+            }
+        }
+    }
+
+    private List<List<Operation>> pages(OperationsQuery query) {
+        final List<List<Operation>> pages = new ArrayList<>();
+        OperationsQueryService.Cursor cursor = null;
+        do {
+            final OperationsQueryService.Page page = queryService.query(query, cursor);
+            pages.add(page.operations());
+            cursor = page.next();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private List<Operation> pageThrough(OperationsQuery query) {
+        return pageThrough(query, null);
+    }
+
+    private List<Operation> pageThrough(OperationsQuery query, OperationsQueryService.Cursor after) {
+        final List<Operation> result = new ArrayList<>();
+        OperationsQueryService.Cursor cursor = after;
+        do {
+            final OperationsQueryService.Page page = queryService.query(query, cursor);
+            assertFalse(page.operations().size() > query.limit(), "Page should not be longer than the limit");
+            result.addAll(page.operations());
+            cursor = page.next();
+        } while (cursor != null);
+        return result;
+    }
+
+    private List<Operation> expected(OperationsQuery query) {
+        final Comparator<Operation> byDate = Comparator
+                .comparing(Operation::getDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(Operation::getId);
+        final Comparator<Operation> order = switch (query.sort()) {
+            case DATE -> byDate;
+            case AMOUNT -> Comparator.comparing(Operation::getAmount).thenComparing(byDate);
+            case ACCOUNT -> byName(entityNamesCache::getAccountName, Operation::getBankAccountId).thenComparing(byDate);
+            case CATEGORY -> byName(entityNamesCache::getCategoryName, Operation::getCategoryId).thenComparing(byDate);
+        };
+
+        final List<String> terms = OperationsIndex.terms(query.search());
+        return storage.getOperations().stream()
+                .filter(operation -> query.accountIds().isEmpty()
+                        || query.accountIds().contains(operation.getBankAccountId()))
+                .filter(operation -> query.categoryIds().isEmpty()
+                        || query.categoryIds().contains(operation.getCategoryId()))
+                .filter(operation -> OperationsIndex.matchesTerms(OperationsIndex.terms(operation.getDescription()),
+                        terms))
+                .filter(query.where())
+                .sorted(query.descending() ? order.reversed() : order)
+                .toList();
+    }
+
+    private static Comparator<Operation> byName(Function<String, String> names, Function<Operation, String> keyOf) {
+        return Comparator.comparing((Operation operation) -> names.apply(keyOf.apply(operation)),
+                Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(keyOf);
+    }
+
+    private void addRandomOperations(int count) {
+        final List<String> descriptions = List.of("Lunch", "Lunch, office", "Salary", "Rent", "");
+        for (int i = 0; i < count; i++) {
+            final String category = "category-" + (char) ('a' + random.nextInt(3));
+            // few distinct dates and amounts, so that most ties are broken by the later keys
+            add(new Operation("operation-" + i, "account-" + (char) ('a' + random.nextInt(4)), category,
+                    BigDecimal.valueOf(category.equals("category-a") ? random.nextInt(5) : -random.nextInt(5)),
+                    random.nextInt(20) == 0 ? null : START.plusDays(random.nextInt(10)),
+                    descriptions.get(random.nextInt(descriptions.size()))));
+        }
+    }
+
+    private Operation add(String accountId, String categoryId, int day) {
+        final Operation operation = new Operation("operation-" + accountId + "-" + day, accountId, categoryId,
+                BigDecimal.ONE, START.plusDays(day), "");
+        add(operation);
+        return operation;
+    }
+
+    private void add(Operation operation) {
+        storage.addOperation(operation);
+        queryService.onStorageEvent(new StorageEvent.OperationAdded(operation));
+    }
+
+    private void remove(Operation operation) {
+        storage.removeOperation(operation);
+        queryService.onStorageEvent(new StorageEvent.OperationDeleted(operation));
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.bmstu_bureau_1440.accounting.Storage;
+import com.bmstu_bureau_1440.accounting.components.BinaryStorageSerializer;
+import com.bmstu_bureau_1440.accounting.components.SafeStorageFiles;
+import com.bmstu_bureau_1440.accounting.events.StorageEvent;
+import com.bmstu_bureau_1440.accounting.models.BankAccount;
+import com.bmstu_bureau_1440.accounting.models.Category;
+import com.bmstu_bureau_1440.accounting.models.Operation;
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+import com.bmstu_bureau_1440.accounting.repositories.ChangeLogRepository;
+
+public class OperationsServiceTests {
+
+    private Storage storage;
+
+    private OperationsService operationsService;
+
+    private final List<StorageEvent> events = new ArrayList<>();
+
+    private BankAccount wallet;
+
+    private BankAccount card;
+
+    private Category salary;
+
+    private Category food;
+
+    private Category unknown;
+
+    @BeforeEach
+    void setUp() {
+        setUp(new Storage(null, null, null));
+    }
+
+    private void setUp(Storage storage) {
+        this.storage = storage;
+        final ApplicationEventPublisher eventPublisher = event -> {
+            storage.onStorageEvent((StorageEvent) event);
+            events.add((StorageEvent) event);
+        };
+        final AccountsService accountsService = new AccountsService(storage, eventPublisher);
+        final CategoriesService categoriesService = new CategoriesService(storage, eventPublisher);
+        // not restored, so nothing is written to the journal
+        final ChangeLogRepository changeLogRepository = new ChangeLogRepository(
+                List.of(new BinaryStorageSerializer()), new SafeStorageFiles(), storage, eventPublisher,
+                ForkJoinPool.commonPool());
+        operationsService = new OperationsService(storage, accountsService, categoriesService, eventPublisher,
+                changeLogRepository);
+
+        wallet = accountsService.addNewBankAccount("Wallet", new BigDecimal("100"));
+        card = accountsService.addNewBankAccount("Card", new BigDecimal("50"));
+        salary = categoriesService.addNewCategory("Salary", OperationType.DEPOSIT);
+        food = categoriesService.addNewCategory("Food", OperationType.WITHDRAWAL);
+        unknown = categoriesService.addNewCategory("Unknown", OperationType.UNKNOWN);
+        events.clear();
+    }
+
+    @Test
+    @DisplayName("Should add nothing if a row has an unknown category")
+    void unknownCategoryRow() {
+        final long version = storage.getVersion();
+
+        final var error = assertThrows(IllegalArgumentException.class, () -> operationsService.addOperations(Stream.of(
+                row(wallet, salary, "10"),
+                row(card, food, "5"),
+                new OperationsService.NewOperation(wallet.getId(), "missing", BigDecimal.ONE, null, ""))));
+
+        assertEquals("Row 3: Unknown category: missing", error.getMessage());
+        assertUnchanged(version);
+    }
+
+    @Test
+    @DisplayName("Should report the first invalid row of a long statement")
+    void firstInvalidRow() {
+        final long version = storage.getVersion();
+        // rows are validated in parallel, the later invalid rows are seen first by some threads
+        final List<OperationsService.NewOperation> rows = new ArrayList<>();
+        IntStream.range(0, 3_000).forEach(i -> rows.add(row(wallet, salary, "1")));
+        rows.set(2_900, new OperationsService.NewOperation(wallet.getId(), "missing", BigDecimal.ONE, null, ""));
+        rows.set(1_500, row(wallet, unknown, "1"));
+        rows.set(1_200, new OperationsService.NewOperation(card.getId(), salary.getId(), null, null, ""));
+
+        final var error = assertThrows(IllegalArgumentException.class,
+                () -> operationsService.addOperations(rows.stream()));
+
+        assertEquals("Row 1201: Amount is missing", error.getMessage());
+        assertUnchanged(version);
+    }
+
+    @Test
+    @DisplayName("Should leave the balances as they were if the storage rejects the operations")
+    void storageRejectsOperations() {
+        setUp(new Storage(null, null, null) {
+
+            @Override
+            public void addOperations(List<Operation> newOperations) {
+                throw new IllegalStateException("Storage is full");
+            }
+
+        });
+
+        assertThrows(IllegalStateException.class, () -> operationsService.addOperations(Stream.of(
+                row(wallet, salary, "10"),
+                row(card, food, "5"))));
+
+        assertEquals(new BigDecimal("100"), wallet.getBalance());
+        assertEquals(new BigDecimal("50"), card.getBalance());
+        assertEquals(0, storage.getOperations().size());
+        assertEquals(List.of(), events, "Nothing should be announced");
+    }
+
+    @Test
+    @DisplayName("Should report the first row that overdraws the running total")
+    void overdraftRow() {
+        final long version = storage.getVersion();
+
+        // the card ends with a positive balance, but row 4 takes it below zero on the way
+        final var error = assertThrows(IllegalArgumentException.class, () -> operationsService.addOperations(Stream.of(
+                row(card, food, "30"),
+                row(wallet, food, "30"),
+                row(card, food, "10"),
+                row(card, food, "20"),
+                row(wallet, food, "80"),
+                row(card, salary, "100"))));
+
+        assertEquals("Row 4: account balance cannot be negative", error.getMessage());
+        assertUnchanged(version);
+    }
+
+    @Test
+    @DisplayName("Should report the earliest overdraft row of all accounts")
+    void overdraftRowOfAnotherAccount() {
+        final long version = storage.getVersion();
+
+        final var error = assertThrows(IllegalArgumentException.class, () -> operationsService.addOperations(Stream.of(
+                row(wallet, food, "60"),
+                row(card, food, "51"),
+                row(wallet, food, "60"))));
+
+        assertEquals("Row 2: account balance cannot be negative", error.getMessage());
+        assertUnchanged(version);
+    }
+
+    @Test
+    @DisplayName("Should keep the order of the rows within an account")
+    void rowOrder() {
+        // every withdrawal spends the deposit right before it, any reordering overdraws the wallet
+        final List<OperationsService.NewOperation> rows = new ArrayList<>();
+        IntStream.range(0, 5_000).forEach(i -> {
+            rows.add(row(wallet, salary, "1000"));
+            rows.add(row(card, salary, "1"));
+            rows.add(row(wallet, food, "1000"));
+        });
+
+        final List<Operation> added = operationsService.addOperations(rows.stream());
+
+        assertEquals(new BigDecimal("100"), wallet.getBalance());
+        assertEquals(new BigDecimal("5050"), card.getBalance());
+        assertEquals(added, storage.getOperations());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).accountId(), added.get(i).getBankAccountId());
+            assertEquals(rows.get(i).description(), added.get(i).getDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("Should announce one balance update per account and every added operation")
+    void announcedChanges() {
+        final List<Operation> added = operationsService.addOperations(Stream.of(
+                row(wallet, salary, "10"),
+                row(card, food, "5"),
+                row(wallet, food, "20")));
+
+        assertEquals(2, events.stream().filter(StorageEvent.AccountUpdated.class::isInstance).count(),
+                "Every account should be updated once");
+        assertEquals(added, events.stream()
+                .filter(StorageEvent.OperationAdded.class::isInstance)
+                .map(event -> ((StorageEvent.OperationAdded) event).operation())
+                .toList(), "Every operation should be announced in order");
+        assertEquals(5, events.size(), "Nothing else should be announced");
+    }
+
+    private static OperationsService.NewOperation row(BankAccount account, Category category, String amount) {
+        return new OperationsService.NewOperation(account.getId(), category.getId(), new BigDecimal(amount), null,
+                category.getName() + " " + amount);
+    }
+
+    private void assertUnchanged(long version) {
+        assertEquals(version, storage.getVersion());
+        assertEquals(new BigDecimal("100"), wallet.getBalance());
+        assertEquals(new BigDecimal("50"), card.getBalance());
+        assertEquals(0, storage.getOperations().size());
+        assertEquals(List.of(), events, "Nothing should be announced");
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.bmstu_bureau_1440.accounting.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bmstu_bureau_1440.accounting.models.OperationType;
+
+public class RollupTests {
+
+    private record Entry(LocalDate date, OperationType type, BigDecimal amount) {
+    }
+
+    private Rollup rollup;
+
+    private List<Entry> entries;
+
+    @BeforeEach
+    void setUp() {
+        rollup = new Rollup();
+        entries = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Should sum partial months at both edges of a range")
+    void partialMonths() {
+        add("2024-01-15", OperationType.DEPOSIT, "10");
+        add("2024-01-31", OperationType.DEPOSIT, "20");
+        add("2024-02-01", OperationType.WITHDRAWAL, "-5");
+        add("2024-02-29", OperationType.DEPOSIT, "40");
+        add("2024-03-01", OperationType.WITHDRAWAL, "-7");
+
+        assertTotals("2024-01-16", "2024-03-01", "60", "-12");
+        assertTotals("2024-01-31", "2024-02-01", "20", "-5");
+        assertTotals("2024-02-01", "2024-02-29", "40", "-5");
+        assertTotals("2024-01-01", "2024-03-31", "70", "-12");
+        assertTotals("2024-01-15", "2024-01-15", "10", "0");
+    }
+
+    @Test
+    @DisplayName("Should match the operations of any range")
+    void randomRanges() {
+        final Random random = new Random(42);
+        final LocalDate start = LocalDate.of(2022, 1, 1);
+        for (int i = 0; i < 2_000; i++) {
+            final OperationType type = random.nextBoolean() ? OperationType.DEPOSIT : OperationType.WITHDRAWAL;
+            final BigDecimal amount = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            add(start.plusDays(random.nextInt(3 * 365)), type,
+                    type == OperationType.DEPOSIT ? amount : amount.negate());
+        }
+
+        for (int i = 0; i < 500; i++) {
+            final LocalDate from = start.plusDays(random.nextInt(3 * 365 + 60) - 30);
+            final LocalDate to = from.plusDays(random.nextInt(400));
+            assertEquals(expectedTotals(from, to), rollup.getTotals(from, to), "Totals of " + from + ".." + to);
+        }
+    }
+
+    @Test
+    @DisplayName("Should start weeks on Monday")
+    void weekBoundaries() {
+        final LocalDate sunday = LocalDate.of(2024, 3, 10);
+        final LocalDate monday = sunday.plusDays(1);
+        add(sunday.toString(), OperationType.DEPOSIT, "1");
+        add(monday.toString(), OperationType.DEPOSIT, "2");
+        add(monday.plusDays(6).toString(), OperationType.DEPOSIT, "4");
+
+        final List<Rollup.Bucket> weeks = rollup.getBuckets(Rollup.Period.WEEK, sunday, monday.plusDays(7));
+
+        assertEquals(3, weeks.size(), "Range should cover three weeks");
+        weeks.forEach(week -> assertEquals(DayOfWeek.MONDAY, week.start().getDayOfWeek(),
+                "Week should start on Monday"));
+        assertEquals(sunday.minusDays(6), weeks.get(0).start(), "First week should contain the Sunday");
+        assertEquals(new BigDecimal("1"), weeks.get(0).income(), "Sunday should close its week");
+        assertEquals(new BigDecimal("6"), weeks.get(1).income(), "Monday to Sunday should be one week");
+        assertEquals(BigDecimal.ZERO, weeks.get(2).income(), "Week without operations should be zero");
+    }
+
+    @Test
+    @DisplayName("Should return zero totals for empty and unbounded ranges")
+    void emptyRanges() {
+        assertEquals(AnalyticsService.Totals.EMPTY, rollup.getTotals(LocalDate.MIN, LocalDate.MAX),
+                "Empty rollup should have no totals");
+
+        add("2024-05-10", OperationType.DEPOSIT, "3");
+        add("2024-06-10", OperationType.WITHDRAWAL, "-2");
+
+        assertEquals(AnalyticsService.Totals.EMPTY, rollup.getTotals(LocalDate.of(2024, 5, 11),
+                LocalDate.of(2024, 5, 10)), "Reversed range should be empty");
+        assertTotals("2023-01-01", "2023-12-31", "0", "0");
+        assertEquals(new AnalyticsService.Totals(new BigDecimal("3"), new BigDecimal("-2")),
+                rollup.getTotals(LocalDate.MIN, LocalDate.MAX), "Unbounded range should cover everything");
+        assertEquals(List.of(), rollup.getBuckets(Rollup.Period.MONTH, LocalDate.of(2024, 6, 1),
+                LocalDate.of(2024, 5, 1)), "Reversed range should have no buckets");
+    }
+
+    @Test
+    @DisplayName("Should keep amounts with more than two decimals exact")
+    void exactAmounts() {
+        add("2024-01-10", OperationType.DEPOSIT, "0.001");
+        add("2024-01-11", OperationType.DEPOSIT, "0.001");
+        add("2024-02-11", OperationType.DEPOSIT, "0.005");
+        add("2024-02-12", OperationType.DEPOSIT, "92233720368547758.07");
+
+        assertTotals("2024-01-01", "2024-01-31", "0.002", "0");
+        assertTotals("2024-01-11", "2024-02-11", "0.006", "0");
+        assertTotals("2024-01-01", "2024-12-31", "92233720368547758.077", "0");
+    }
+
+    private void add(String date, OperationType type, String amount) {
+        add(LocalDate.parse(date), type, new BigDecimal(amount));
+    }
+
+    private void add(LocalDate date, OperationType type, BigDecimal amount) {
+        rollup.add(date, type, amount);
+        entries.add(new Entry(date, type, amount));
+    }
+
+    private void assertTotals(String from, String to, String income, String expenses) {
+        final AnalyticsService.Totals totals = rollup.getTotals(LocalDate.parse(from), LocalDate.parse(to));
+
+        assertEquals(0, new BigDecimal(income).compareTo(totals.income()), "Income of " + from + ".." + to);
+        assertEquals(0, new BigDecimal(expenses).compareTo(totals.expenses()), "Expenses of " + from + ".." + to);
+    }
+
+    private AnalyticsService.Totals expectedTotals(LocalDate from, LocalDate to) {
+        AnalyticsService.Totals totals = AnalyticsService.Totals.EMPTY;
+        for (Entry entry : entries) {
+            if (!entry.date().isBefore(from) && !entry.date().isAfter(to)) {
+                totals = totals.add(entry.type(), entry.amount());
+            }
+        }
+        return totals;
+    }
+
+}
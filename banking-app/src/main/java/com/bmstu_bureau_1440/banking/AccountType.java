@@ -0,0 +1,6 @@
+package com.bmstu_bureau_1440.banking;
+
+public enum AccountType {
+    DEBIT,
+    CREDIT
+}
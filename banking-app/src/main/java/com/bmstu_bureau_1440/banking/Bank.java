@@ -1,7 +1,12 @@
 package com.bmstu_bureau_1440.banking;
 
+import lombok.NonNull;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.function.Supplier;
 
 public class Bank {
@@ -9,9 +14,13 @@ public class Bank {
     public static final List<Customer> customers = new ArrayList<>();
     public static final List<Account> accounts = new ArrayList<>();
     public static final List<Transaction> transactions = new ArrayList<>();
+    public static final OffHeapAccountTable offHeapAccounts = new OffHeapAccountTable();
+
+    private static final Map<String, Integer> customerIndexes = new HashMap<>();
 
     public static Customer createCustomer(String name) throws NullPointerException {
         Customer customer = new Customer(name);
+        customerIndexes.put(customer.getId(), customers.size());
         customers.add(customer);
         return customer;
     }
@@ -35,6 +44,22 @@ public class Bank {
         return creditAccount;
     }
 
+    public static String openOffHeapDebitAccount(Customer owner) throws NullPointerException {
+        return openOffHeapAccount(owner, AccountType.DEBIT, 0d);
+    }
+
+    public static String openOffHeapCreditAccount(Customer owner, double creditLimit) throws NullPointerException {
+        return openOffHeapAccount(owner, AccountType.CREDIT, creditLimit);
+    }
+
+    public static Customer findOffHeapAccountOwner(String accountNumber) {
+        var slot = offHeapAccounts.find(accountNumber);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        return customers.get(offHeapAccounts.getOwnerIndex(slot));
+    }
+
     public static Account findAccount(String accountNumber) {
         return accounts.stream()
                 .filter(account -> account.getAccountNumber().equals(accountNumber))
@@ -49,6 +74,10 @@ public class Bank {
                 .amount(amount);
 
         return execute(() -> {
+            var slot = offHeapAccounts.find(accountNumber);
+            if (slot >= 0) {
+                return offHeapAccounts.deposit(slot, amount);
+            }
             var account = findAccount(accountNumber);
             return account.deposit(amount);
         }, transaction);
@@ -61,6 +90,10 @@ public class Bank {
                 .amount(amount);
 
         return execute(() -> {
+            var slot = offHeapAccounts.find(accountNumber);
+            if (slot >= 0) {
+                return offHeapAccounts.withdraw(slot, amount);
+            }
             var account = findAccount(accountNumber);
             return account.withdraw(amount);
         }, transaction);
@@ -75,9 +108,24 @@ public class Bank {
 
         return execute(
                 () -> {
-                    var fromAccount = findAccount(from);
-                    var toAccount = findAccount(to);
-                    return fromAccount.transfer(toAccount, amount);
+                    var fromSlot = offHeapAccounts.find(from);
+                    var toSlot = offHeapAccounts.find(to);
+                    var fromAccount = fromSlot < 0 ? findAccount(from) : null;
+                    var toAccount = toSlot < 0 ? findAccount(to) : null;
+
+                    if (fromAccount != null && toAccount != null) {
+                        return fromAccount.transfer(toAccount, amount);
+                    }
+                    if (fromAccount == null && toAccount == null) {
+                        return offHeapAccounts.transfer(fromSlot, toSlot, amount);
+                    }
+
+                    var isWithdrawalSuccessful = fromAccount != null
+                            ? fromAccount.withdraw(amount)
+                            : offHeapAccounts.withdraw(fromSlot, amount);
+                    return isWithdrawalSuccessful && (toAccount != null
+                            ? toAccount.deposit(amount)
+                            : offHeapAccounts.deposit(toSlot, amount));
                 }, transaction
         );
     }
@@ -86,6 +134,16 @@ public class Bank {
         accounts.stream()
                 .filter(account -> account.getOwner().getId().equals(customerId))
                 .forEach(System.out::println);
+
+        var ownerIndex = customerIndexes.get(customerId);
+        if (ownerIndex == null) {
+            return;
+        }
+        for (int slot = 0; slot < offHeapAccounts.size(); slot++) {
+            if (offHeapAccounts.getOwnerIndex(slot) == ownerIndex) {
+                System.out.println(offHeapAccounts.toString(slot));
+            }
+        }
     }
 
     public static void printTransactions() {
@@ -106,6 +164,16 @@ public class Bank {
             }
         }
 
+        for (int slot = 0; slot < offHeapAccounts.size(); slot++) {
+            if (offHeapAccounts.getType(slot) == AccountType.DEBIT) {
+                debitAccounts++;
+                debitAccountsSum += offHeapAccounts.getBalance(slot);
+            } else {
+                creditAccounts++;
+                creditAccountsSum += offHeapAccounts.getBalance(slot);
+            }
+        }
+
         int successfulTransactions = 0, failedTransactions = 0;
 
         for (var transaction : transactions) {
@@ -121,6 +189,16 @@ public class Bank {
         System.out.println("Transactions: successful - " + successfulTransactions + "; failed - " + failedTransactions);
     }
 
+    private static String openOffHeapAccount(@NonNull Customer owner, AccountType type, double creditLimit) {
+        var ownerIndex = customerIndexes.get(owner.getId());
+        if (ownerIndex == null) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+
+        var slot = offHeapAccounts.insert(UUID.randomUUID(), type, ownerIndex, creditLimit);
+        return offHeapAccounts.getAccountNumber(slot);
+    }
+
     private static boolean execute(Supplier<Boolean> action, Transaction.TransactionBuilder transaction) {
 
         var success = false;
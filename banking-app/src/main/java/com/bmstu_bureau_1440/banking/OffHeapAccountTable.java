@@ -0,0 +1,244 @@
+package com.bmstu_bureau_1440.banking;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Account storage that keeps every account as a fixed-size row in direct (off-heap) memory,
+ * so the Java heap does not grow with the number of accounts. Accounts are addressed by slot,
+ * account numbers are resolved to slots through an off-heap open-addressing hash index.
+ */
+public class OffHeapAccountTable {
+
+    private static final int ROW_SIZE = 40;
+
+    private static final int NUMBER_MSB_OFFSET = 0;
+    private static final int NUMBER_LSB_OFFSET = 8;
+    private static final int BALANCE_OFFSET = 16;
+    private static final int CREDIT_LIMIT_OFFSET = 24;
+    private static final int OWNER_OFFSET = 32;
+    private static final int TYPE_OFFSET = 36;
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int ROWS_PER_PAGE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = ROWS_PER_PAGE - 1;
+
+    private static final int MAX_INDEX_CAPACITY = 1 << 28;
+
+    private static final AccountType[] TYPES = AccountType.values();
+
+    private final List<ByteBuffer> pages = new ArrayList<>();
+
+    private ByteBuffer index;
+
+    private int indexMask;
+
+    private int size;
+
+    public OffHeapAccountTable() {
+        this(1024);
+    }
+
+    public OffHeapAccountTable(int expectedAccounts) {
+        int capacity = 16;
+        while (capacity < MAX_INDEX_CAPACITY && capacity < expectedAccounts * 2L) {
+            capacity <<= 1;
+        }
+        allocateIndex(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int insert(@NonNull UUID accountNumber, @NonNull AccountType type, int ownerIndex, double creditLimit) {
+        if (creditLimit < 0) {
+            throw new IllegalArgumentException("Credit limit must be positive");
+        }
+        if (find(accountNumber) >= 0) {
+            throw new IllegalArgumentException("Account already exists: " + accountNumber);
+        }
+        if ((long) (size + 1) * 2 > index.capacity() / Integer.BYTES) {
+            growIndex();
+        }
+
+        int slot = size;
+        if ((slot >>> PAGE_SHIFT) == pages.size()) {
+            pages.add(ByteBuffer.allocateDirect(ROWS_PER_PAGE * ROW_SIZE).order(ByteOrder.nativeOrder()));
+        }
+
+        var page = page(slot);
+        int row = rowOffset(slot);
+        page.putLong(row + NUMBER_MSB_OFFSET, accountNumber.getMostSignificantBits());
+        page.putLong(row + NUMBER_LSB_OFFSET, accountNumber.getLeastSignificantBits());
+        page.putDouble(row + BALANCE_OFFSET, 0d);
+        page.putDouble(row + CREDIT_LIMIT_OFFSET, type == AccountType.CREDIT ? creditLimit : 0d);
+        page.putInt(row + OWNER_OFFSET, ownerIndex);
+        page.put(row + TYPE_OFFSET, (byte) type.ordinal());
+
+        size++;
+        putIndex(slot);
+
+        return slot;
+    }
+
+    public int find(String accountNumber) {
+        if (accountNumber == null) {
+            return -1;
+        }
+
+        try {
+            return find(UUID.fromString(accountNumber));
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    public int find(@NonNull UUID accountNumber) {
+        long msb = accountNumber.getMostSignificantBits();
+        long lsb = accountNumber.getLeastSignificantBits();
+
+        int position = hash(msb, lsb) & indexMask;
+        int entry;
+        while ((entry = index.getInt(position * Integer.BYTES)) != 0) {
+            int slot = entry - 1;
+            var page = page(slot);
+            int row = rowOffset(slot);
+            if (page.getLong(row + NUMBER_MSB_OFFSET) == msb && page.getLong(row + NUMBER_LSB_OFFSET) == lsb) {
+                return slot;
+            }
+            position = (position + 1) & indexMask;
+        }
+
+        return -1;
+    }
+
+    public String getAccountNumber(int slot) {
+        checkSlot(slot);
+        var page = page(slot);
+        int row = rowOffset(slot);
+        return new UUID(page.getLong(row + NUMBER_MSB_OFFSET), page.getLong(row + NUMBER_LSB_OFFSET)).toString();
+    }
+
+    public AccountType getType(int slot) {
+        checkSlot(slot);
+        return TYPES[page(slot).get(rowOffset(slot) + TYPE_OFFSET)];
+    }
+
+    public int getOwnerIndex(int slot) {
+        checkSlot(slot);
+        return page(slot).getInt(rowOffset(slot) + OWNER_OFFSET);
+    }
+
+    public double getBalance(int slot) {
+        checkSlot(slot);
+        return page(slot).getDouble(rowOffset(slot) + BALANCE_OFFSET);
+    }
+
+    public double getCreditLimit(int slot) {
+        checkSlot(slot);
+        return page(slot).getDouble(rowOffset(slot) + CREDIT_LIMIT_OFFSET);
+    }
+
+    public boolean deposit(int slot, double amount) {
+        checkSlot(slot);
+        if (amount > 0) {
+            setBalance(slot, getBalance(slot) + amount);
+            return true;
+        } else {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+    }
+
+    public boolean withdraw(int slot, double amount) {
+        checkSlot(slot);
+        var balance = getBalance(slot);
+
+        if (getType(slot) == AccountType.CREDIT) {
+            if (amount > 0 && amount <= balance + getCreditLimit(slot)) {
+                setBalance(slot, balance - amount);
+                return true;
+            } else {
+                throw new IllegalArgumentException("Withdrawal amount must be positive and less than or equal to balance + credit limit");
+            }
+        }
+
+        if (amount > 0 && amount <= balance) {
+            setBalance(slot, balance - amount);
+            return true;
+        } else {
+            throw new IllegalArgumentException("Withdrawal amount must be positive and less than current balance");
+        }
+    }
+
+    public boolean transfer(int from, int to, double amount) {
+        checkSlot(to);
+        var isWithdrawalSuccessful = withdraw(from, amount);
+        return isWithdrawalSuccessful && deposit(to, amount);
+    }
+
+    public String toString(int slot) {
+        return String.format("OffHeapAccount(accountNumber=%s, type=%s, balance=%s, creditLimit=%s)",
+                getAccountNumber(slot), getType(slot), getBalance(slot), getCreditLimit(slot));
+    }
+
+    private void setBalance(int slot, double balance) {
+        page(slot).putDouble(rowOffset(slot) + BALANCE_OFFSET, balance);
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IllegalArgumentException("Account not found");
+        }
+    }
+
+    private ByteBuffer page(int slot) {
+        return pages.get(slot >>> PAGE_SHIFT);
+    }
+
+    private static int rowOffset(int slot) {
+        return (slot & PAGE_MASK) * ROW_SIZE;
+    }
+
+    private void allocateIndex(int capacity) {
+        index = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        indexMask = capacity - 1;
+    }
+
+    private void growIndex() {
+        int capacity = indexMask + 1;
+        if (capacity >= MAX_INDEX_CAPACITY) {
+            throw new IllegalStateException("Account table is full");
+        }
+
+        allocateIndex(capacity << 1);
+        for (int slot = 0; slot < size; slot++) {
+            putIndex(slot);
+        }
+    }
+
+    private void putIndex(int slot) {
+        var page = page(slot);
+        int row = rowOffset(slot);
+
+        int position = hash(page.getLong(row + NUMBER_MSB_OFFSET), page.getLong(row + NUMBER_LSB_OFFSET)) & indexMask;
+        while (index.getInt(position * Integer.BYTES) != 0) {
+            position = (position + 1) & indexMask;
+        }
+        index.putInt(position * Integer.BYTES, slot + 1);
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+}
@@ -277,4 +277,49 @@ public class BankTests {
         assertTrue(result ? Transaction.TRANSACTION_SUCCESS_MESSAGE.equals(transaction.getMessage()) : !transaction.getMessage().isEmpty(), "Transaction should have correct message");
     }
 
+    @Test
+    @DisplayName("Should open off-heap accounts and find their owner")
+    void openOffHeapAccounts() {
+        var debitAccountNumber = Bank.openOffHeapDebitAccount(customer);
+        var creditAccountNumber = Bank.openOffHeapCreditAccount(customer, 300d);
+
+        assertTrue(Bank.offHeapAccounts.find(debitAccountNumber) >= 0, "Debit account should be in the table");
+        assertTrue(Bank.offHeapAccounts.find(creditAccountNumber) >= 0, "Credit account should be in the table");
+        assertEquals(customer, Bank.findOffHeapAccountOwner(debitAccountNumber), "Owner should be resolved by index");
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> Bank.openOffHeapDebitAccount(new Customer("Unknown")),
+                "Should throw exception when customer is not registered in the bank"
+        );
+    }
+
+    @Test
+    @DisplayName("Should route operations on off-heap accounts through the table")
+    void offHeapOperations() {
+        var currentAmountOfTransactions = Bank.transactions.size();
+
+        var debitAccountNumber = Bank.openOffHeapDebitAccount(customer);
+        var creditAccountNumber = Bank.openOffHeapCreditAccount(customer, 100d);
+        var heapAccount = Bank.openDebitAccount(customer);
+
+        assertTrue(Bank.deposit(debitAccountNumber, 50d), "Should deposit money to off-heap account");
+        assertTrue(Bank.withdraw(creditAccountNumber, 80d), "Should withdraw money from off-heap credit account");
+        assertTrue(Bank.transfer(debitAccountNumber, creditAccountNumber, 30d), "Should transfer between off-heap accounts");
+        assertTrue(Bank.transfer(debitAccountNumber, heapAccount.getAccountNumber(), 20d), "Should transfer to heap account");
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> Bank.withdraw(debitAccountNumber, 1d),
+                "Should throw exception when debit balance is insufficient"
+        );
+
+        var debitSlot = Bank.offHeapAccounts.find(debitAccountNumber);
+        var creditSlot = Bank.offHeapAccounts.find(creditAccountNumber);
+
+        assertEquals(0d, Bank.offHeapAccounts.getBalance(debitSlot), "Debit balance should reflect all operations");
+        assertEquals(-50d, Bank.offHeapAccounts.getBalance(creditSlot), "Credit balance should reflect all operations");
+        assertEquals(20d, heapAccount.getBalance(), "Heap account should receive the transfer");
+        assertEquals(currentAmountOfTransactions + 5, Bank.transactions.size(), "Should record every transaction");
+        assertFalse(Bank.transactions.getLast().isSuccess(), "Failed withdrawal should be recorded as unsuccessful");
+    }
+
 }
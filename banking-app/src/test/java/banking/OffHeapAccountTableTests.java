@@ -0,0 +1,131 @@
+package banking;
+
+import com.bmstu_bureau_1440.banking.AccountType;
+import com.bmstu_bureau_1440.banking.OffHeapAccountTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapAccountTableTests {
+
+    private OffHeapAccountTable table;
+
+    @BeforeEach
+    void setup() {
+        table = new OffHeapAccountTable(16);
+    }
+
+    @Test
+    @DisplayName("Should insert account and find it by account number")
+    void insertAndFind() {
+        var accountNumber = UUID.randomUUID();
+
+        var slot = table.insert(accountNumber, AccountType.CREDIT, 7, 500d);
+
+        assertEquals(slot, table.find(accountNumber.toString()), "Should find account by its number");
+        assertEquals(accountNumber.toString(), table.getAccountNumber(slot), "Account number should be stored");
+        assertEquals(AccountType.CREDIT, table.getType(slot), "Account type should be stored");
+        assertEquals(7, table.getOwnerIndex(slot), "Owner index should be stored");
+        assertEquals(500d, table.getCreditLimit(slot), "Credit limit should be stored");
+        assertEquals(0d, table.getBalance(slot), "Initial balance should be zero");
+    }
+
+    @Test
+    @DisplayName("Should not find unknown or malformed account numbers")
+    void findUnknown() {
+        table.insert(UUID.randomUUID(), AccountType.DEBIT, 0, 0d);
+
+        assertEquals(-1, table.find(UUID.randomUUID().toString()), "Unknown account should not be found");
+        assertEquals(-1, table.find("not-a-uuid"), "Malformed account number should not be found");
+        assertEquals(-1, table.find((String) null), "Null account number should not be found");
+    }
+
+    @Test
+    @DisplayName("Should keep all accounts addressable after growing")
+    void growBeyondInitialCapacity() {
+        var accountNumbers = new ArrayList<UUID>();
+
+        for (int i = 0; i < 100_000; i++) {
+            var accountNumber = UUID.randomUUID();
+            accountNumbers.add(accountNumber);
+            table.insert(accountNumber, i % 2 == 0 ? AccountType.DEBIT : AccountType.CREDIT, i, 10d);
+        }
+
+        assertEquals(100_000, table.size(), "All accounts should be stored");
+        for (int i = 0; i < accountNumbers.size(); i++) {
+            assertEquals(i, table.find(accountNumbers.get(i)), "Slot should be stable after index growth");
+            assertEquals(i, table.getOwnerIndex(i), "Owner index should survive page allocation");
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate account numbers")
+    void rejectDuplicates() {
+        var accountNumber = UUID.randomUUID();
+        table.insert(accountNumber, AccountType.DEBIT, 0, 0d);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> table.insert(accountNumber, AccountType.DEBIT, 0, 0d),
+                "Should throw exception when account number already exists"
+        );
+    }
+
+    @ParameterizedTest(name = "Should handle deposit of {0}")
+    @DisplayName("Should deposit money")
+    @ValueSource(doubles = {30d, 0d, -1d})
+    void depositMoney(double amount) {
+        var slot = table.insert(UUID.randomUUID(), AccountType.DEBIT, 0, 0d);
+
+        if (amount > 0) {
+            assertTrue(table.deposit(slot, amount), "Deposit failed");
+            assertEquals(amount, table.getBalance(slot), "Balance is not equal to expected deposit amount");
+        } else {
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> table.deposit(slot, amount),
+                    "Deposit insufficient amount should throw exception"
+            );
+            assertEquals(0d, table.getBalance(slot), "Balance should not change");
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply debit and credit withdrawal rules")
+    void withdrawMoney() {
+        var debit = table.insert(UUID.randomUUID(), AccountType.DEBIT, 0, 0d);
+        var credit = table.insert(UUID.randomUUID(), AccountType.CREDIT, 0, 100d);
+
+        assertThrows(IllegalArgumentException.class, () -> table.withdraw(debit, 1d),
+                "Debit account should not go below zero");
+
+        assertTrue(table.withdraw(credit, 100d), "Credit account should allow withdrawal up to the limit");
+        assertEquals(-100d, table.getBalance(credit), "Balance should be decreased by the withdrawn amount");
+        assertThrows(IllegalArgumentException.class, () -> table.withdraw(credit, 1d),
+                "Credit account should not exceed the limit");
+    }
+
+    @Test
+    @DisplayName("Should transfer money between slots")
+    void transferMoney() {
+        var from = table.insert(UUID.randomUUID(), AccountType.DEBIT, 0, 0d);
+        var to = table.insert(UUID.randomUUID(), AccountType.DEBIT, 0, 0d);
+        table.deposit(from, 50d);
+
+        assertTrue(table.transfer(from, to, 20d), "Transfer failed");
+        assertEquals(30d, table.getBalance(from), "Balance should be decreased by the transferred amount");
+        assertEquals(20d, table.getBalance(to), "Balance should be increased by the transferred amount");
+
+        assertThrows(IllegalArgumentException.class, () -> table.transfer(from, 42, 10d),
+                "Should throw exception when target slot does not exist");
+        assertEquals(30d, table.getBalance(from), "Balance should not change when target slot does not exist");
+    }
+
+}